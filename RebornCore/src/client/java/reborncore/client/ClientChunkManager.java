@@ -33,9 +33,11 @@ import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.util.math.BlockPos;
 import org.joml.Matrix4f;
 import reborncore.common.chunkloading.ChunkLoaderManager;
+import reborncore.common.network.clientbound.ChunkSyncPayload;
 import reborncore.common.network.serverbound.ChunkLoaderRequestPayload;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 public class ClientChunkManager {
@@ -47,6 +49,23 @@ public class ClientChunkManager {
 		loadedChunks.addAll(chunks);
 	}
 
+	public static void handleSync(ChunkSyncPayload payload) {
+		if (payload.replace()) {
+			setLoadedChunks(payload.added());
+			return;
+		}
+
+		// Changes are only applied while the chunks of their chunk loader are shown
+		BlockPos chunkLoader = !payload.added().isEmpty() ? payload.added().get(0).chunkLoader()
+			: !payload.removed().isEmpty() ? payload.removed().get(0).chunkLoader() : null;
+		if (chunkLoader == null || loadedChunks.stream().noneMatch(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))) {
+			return;
+		}
+
+		loadedChunks.removeAll(new HashSet<>(payload.removed()));
+		loadedChunks.addAll(payload.added());
+	}
+
 	public static void toggleLoadedChunks(BlockPos chunkLoader) {
 		if (loadedChunks.isEmpty()) {
 			ClientPlayNetworking.send(new ChunkLoaderRequestPayload(chunkLoader));
@@ -0,0 +1,273 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.client.multiblock;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientBlockEntityEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FluidBlock;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.VertexBuffer;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BuiltBuffer;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.RenderLayers;
+import net.minecraft.client.render.VertexConsumerProvider;
+import net.minecraft.client.render.block.BlockRenderManager;
+import net.minecraft.client.util.BufferAllocator;
+import net.minecraft.client.util.math.MatrixStack;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.World;
+import org.joml.Matrix4f;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.blockentity.MultiblockWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Caches the hologram of a multiblock in vertex buffers, so that it doesn't go through the block renderer every frame.
+ * <p>
+ * The hologram only contains the blocks that are missing. The shape and the missing blocks are checked again every
+ * few ticks, and the buffers are only rebuilt when the facing, the shape or the missing blocks changed.
+ */
+final class HologramCache {
+	private static final float SCALE = 0.4F;
+	private static final int RECHECK_TICKS = 10;
+	private static final BlockPos OUT_OF_WORLD_POS = new BlockPos(0, 260, 0); // Bad hack; disables lighting
+
+	private static final Map<MachineBaseBlockEntity, Hologram> holograms = new IdentityHashMap<>();
+	private static long lastSweep = Long.MIN_VALUE;
+
+	static {
+		// Free the buffers when the world goes away, a later render call would only free them if a hologram is shown
+		ClientBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register((blockEntity, world) -> {
+			if (blockEntity instanceof MachineBaseBlockEntity machineBase) {
+				remove(machineBase);
+			}
+		});
+		ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(HologramCache::clear));
+	}
+
+	private HologramCache() {
+	}
+
+	static void render(MachineBaseBlockEntity blockEntity, MatrixStack matrices, VertexConsumerProvider vertexConsumerProvider) {
+		World world = blockEntity.getWorld();
+		sweep(world);
+
+		Hologram hologram = holograms.computeIfAbsent(blockEntity, be -> new Hologram());
+		hologram.update(blockEntity, world);
+		hologram.draw(world, matrices, vertexConsumerProvider);
+	}
+
+	static void remove(MachineBaseBlockEntity blockEntity) {
+		if (holograms.isEmpty()) {
+			return;
+		}
+
+		Hologram hologram = holograms.remove(blockEntity);
+		if (hologram != null) {
+			hologram.close();
+		}
+	}
+
+	private static void clear() {
+		holograms.values().forEach(Hologram::close);
+		holograms.clear();
+		lastSweep = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Frees the buffers of block entities that were removed or unloaded, once per tick.
+	 */
+	private static void sweep(World world) {
+		if (world.getTime() == lastSweep) {
+			return;
+		}
+		lastSweep = world.getTime();
+
+		holograms.entrySet().removeIf(entry -> {
+			if (entry.getKey().isRemoved() || entry.getKey().getWorld() != world) {
+				entry.getValue().close();
+				return true;
+			}
+			return false;
+		});
+	}
+
+	private static final class Hologram {
+		private Direction facing = null;
+		private long checkedAt = Long.MIN_VALUE;
+		// The shape relative to the block entity, as written by the block entity
+		private long[] positions = new long[0];
+		private BlockState[] states = new BlockState[0];
+		private BiPredicate<BlockView, BlockPos>[] predicates = null;
+		private BitSet missing = null;
+		private final Map<RenderLayer, VertexBuffer> buffers = new LinkedHashMap<>();
+		// Rendered every frame, they go through the item renderer
+		private final List<Integer> fluidEntries = new ArrayList<>();
+
+		private void update(MachineBaseBlockEntity blockEntity, World world) {
+			long time = world.getTime();
+			Direction currentFacing = blockEntity.getFacing();
+			if (currentFacing == facing && time >= checkedAt && time - checkedAt < RECHECK_TICKS) {
+				return;
+			}
+			checkedAt = time;
+
+			Recorder recorder = new Recorder();
+			blockEntity.writeMultiblock(recorder.rotate(currentFacing.getOpposite()));
+			long[] currentPositions = recorder.positions.toLongArray();
+			BlockState[] currentStates = recorder.states.toArray(new BlockState[0]);
+
+			boolean shapeChanged = currentFacing != facing || !Arrays.equals(currentPositions, positions) || !Arrays.equals(currentStates, states);
+			facing = currentFacing;
+			positions = currentPositions;
+			states = currentStates;
+			predicates = recorder.getPredicates();
+
+			BitSet currentMissing = new BitSet(positions.length);
+			BlockPos origin = blockEntity.getPos();
+			for (int i = 0; i < positions.length; i++) {
+				BlockPos pos = origin.add(BlockPos.unpackLongX(positions[i]), BlockPos.unpackLongY(positions[i]), BlockPos.unpackLongZ(positions[i]));
+				if (!predicates[i].test(world, pos)) {
+					currentMissing.set(i);
+				}
+			}
+
+			if (shapeChanged || !currentMissing.equals(missing)) {
+				missing = currentMissing;
+				rebuild(world);
+			}
+		}
+
+		private void rebuild(World world) {
+			close();
+
+			BlockRenderManager blockRenderManager = MinecraftClient.getInstance().getBlockRenderManager();
+			Map<RenderLayer, BufferAllocator> allocators = new LinkedHashMap<>();
+			Map<RenderLayer, BufferBuilder> builders = new LinkedHashMap<>();
+			MatrixStack matrices = new MatrixStack();
+			Random random = Random.create();
+
+			for (int i = missing.nextSetBit(0); i >= 0; i = missing.nextSetBit(i + 1)) {
+				BlockState state = states[i];
+				if (state.getBlock() instanceof FluidBlock) {
+					fluidEntries.add(i);
+					continue;
+				}
+
+				RenderLayer layer = RenderLayers.getBlockLayer(state);
+				BufferBuilder builder = builders.computeIfAbsent(layer, l -> {
+					BufferAllocator allocator = new BufferAllocator(l.getExpectedBufferSize());
+					allocators.put(l, allocator);
+					return new BufferBuilder(allocator, l.getDrawMode(), l.getVertexFormat());
+				});
+
+				matrices.push();
+				matrices.translate(BlockPos.unpackLongX(positions[i]), BlockPos.unpackLongY(positions[i]), BlockPos.unpackLongZ(positions[i]));
+				matrices.translate(0.5, 0.5, 0.5);
+				matrices.scale(SCALE, SCALE, SCALE);
+				matrices.translate(-0.5, -0.5, -0.5);
+				random.setSeed(42L);
+				blockRenderManager.renderBlock(state, OUT_OF_WORLD_POS, world, matrices, builder, false, random);
+				matrices.pop();
+			}
+
+			for (Map.Entry<RenderLayer, BufferBuilder> entry : builders.entrySet()) {
+				BuiltBuffer builtBuffer = entry.getValue().endNullable();
+				if (builtBuffer != null) {
+					VertexBuffer buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+					buffer.bind();
+					buffer.upload(builtBuffer);
+					VertexBuffer.unbind();
+					buffers.put(entry.getKey(), buffer);
+				}
+			}
+			allocators.values().forEach(BufferAllocator::close);
+		}
+
+		private void draw(World world, MatrixStack matrices, VertexConsumerProvider vertexConsumerProvider) {
+			if (!buffers.isEmpty()) {
+				// The block entity matrices are relative to the camera, the view rotation is in the model view matrix
+				Matrix4f modelView = new Matrix4f(RenderSystem.getModelViewMatrix()).mul(matrices.peek().getPositionMatrix());
+
+				for (Map.Entry<RenderLayer, VertexBuffer> entry : buffers.entrySet()) {
+					RenderLayer layer = entry.getKey();
+					VertexBuffer buffer = entry.getValue();
+					layer.startDrawing();
+					buffer.bind();
+					buffer.draw(modelView, RenderSystem.getProjectionMatrix(), RenderSystem.getShader());
+					VertexBuffer.unbind();
+					layer.endDrawing();
+				}
+			}
+
+			if (!fluidEntries.isEmpty()) {
+				HologramRenderer renderer = new HologramRenderer(world, matrices, vertexConsumerProvider, SCALE);
+				for (int i : fluidEntries) {
+					renderer.add(BlockPos.unpackLongX(positions[i]), BlockPos.unpackLongY(positions[i]), BlockPos.unpackLongZ(positions[i]), predicates[i], states[i]);
+				}
+			}
+		}
+
+		private void close() {
+			buffers.values().forEach(VertexBuffer::close);
+			buffers.clear();
+			fluidEntries.clear();
+		}
+	}
+
+	private static final class Recorder implements MultiblockWriter {
+		private final LongArrayList positions = new LongArrayList();
+		private final List<BlockState> states = new ArrayList<>();
+		private final List<BiPredicate<BlockView, BlockPos>> predicates = new ArrayList<>();
+
+		@Override
+		public MultiblockWriter add(int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
+			positions.add(BlockPos.asLong(x, y, z));
+			states.add(state);
+			predicates.add(predicate);
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		private BiPredicate<BlockView, BlockPos>[] getPredicates() {
+			return predicates.toArray(new BiPredicate[0]);
+		}
+	}
+}
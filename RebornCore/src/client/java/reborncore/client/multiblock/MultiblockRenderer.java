@@ -38,7 +38,9 @@ public class MultiblockRenderer<T extends MachineBaseBlockEntity> implements Blo
 	@Override
 	public void render(T blockEntity, float partialTicks, MatrixStack matrixStack, VertexConsumerProvider vertexConsumerProvider, int light, int overlay) {
 		if (blockEntity.renderMultiblock && !blockEntity.isShapeValid()) {
-			blockEntity.writeMultiblock(new HologramRenderer(blockEntity.getWorld(), matrixStack, vertexConsumerProvider, 0.4F).rotate(blockEntity.getFacing().getOpposite()));
+			HologramCache.render(blockEntity, matrixStack, vertexConsumerProvider);
+		} else {
+			HologramCache.remove(blockEntity);
 		}
 	}
 
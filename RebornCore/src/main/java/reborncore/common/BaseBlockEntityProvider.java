@@ -39,6 +39,8 @@ import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.profiler.TickProfiler;
 
 import java.util.Optional;
 
@@ -73,10 +75,24 @@ public abstract class BaseBlockEntityProvider extends Block implements BlockEnti
 		nbtComponent.applyToBlockEntity(world.getBlockEntity(pos), world.getRegistryManager());
 	}
 
+	@Override
+	public void neighborUpdate(BlockState state, World world, BlockPos pos, Block sourceBlock, BlockPos sourcePos, boolean notify) {
+		super.neighborUpdate(state, world, pos, sourceBlock, sourcePos, notify);
+		if (world.getBlockEntity(pos) instanceof MachineBaseBlockEntity machineBase) {
+			machineBase.onNeighborUpdate(sourcePos);
+		}
+	}
+
 	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(World world, BlockState state, BlockEntityType<T> type) {
 		return (world1, pos, state1, blockEntity) -> {
+			if (blockEntity instanceof MachineBaseBlockEntity machineBase && machineBase.isDormant()) {
+				// Idle machines skip their tick until something wakes them up.
+				return;
+			}
 			if (blockEntity instanceof BlockEntityTicker) {
+				long profileStart = world1.isClient ? 0 : TickProfiler.start();
 				((BlockEntityTicker) blockEntity).tick(world1, pos, state1, blockEntity);
+				TickProfiler.stop(TickProfiler.Section.MACHINE_TICK, blockEntity, profileStart);
 			}
 		};
 	}
@@ -48,7 +48,10 @@ import net.minecraft.text.Text;
 import net.minecraft.world.chunk.ChunkStatus;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.QueueItemStacksPayload;
+import reborncore.common.profiler.TickProfiler;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -97,6 +100,14 @@ public class RebornCoreCommands {
 							)
 					)
 
+					.then(
+						literal("profile")
+							.requires(source -> source.hasPermissionLevel(3))
+							.then(literal("start").executes(RebornCoreCommands::profileStart))
+							.then(literal("stop").executes(RebornCoreCommands::profileStop))
+							.then(literal("dump").executes(RebornCoreCommands::profileDump))
+					)
+
 					.then(
 						literal("render")
 							.then(
@@ -153,6 +164,36 @@ public class RebornCoreCommands {
 		return Command.SINGLE_SUCCESS;
 	}
 
+	private static int profileStart(CommandContext<ServerCommandSource> ctx) {
+		TickProfiler.enable();
+		ctx.getSource().sendFeedback(() -> Text.literal("Started the tick profiler"), true);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int profileStop(CommandContext<ServerCommandSource> ctx) {
+		TickProfiler.disable();
+		ctx.getSource().sendFeedback(() -> Text.literal("Stopped the tick profiler"), true);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int profileDump(CommandContext<ServerCommandSource> ctx) {
+		final Path file;
+		try {
+			file = TickProfiler.writeReport();
+		} catch (IOException e) {
+			ctx.getSource().sendError(Text.literal("Failed to write the profile: " + e.getMessage()));
+			return 0;
+		}
+
+		ctx.getSource().sendFeedback(() -> Text.literal("Wrote the profile to " + file), false);
+		TickProfiler.getWorstPositions().forEach(entry -> ctx.getSource().sendFeedback(() -> Text.literal(String.format("%s %d %d %d: %.3f ms",
+				entry.getKey().dimension().getValue(), entry.getKey().pos().getX(), entry.getKey().pos().getY(), entry.getKey().pos().getZ(), entry.getLongValue() / 1_000_000.0)), false));
+
+		return Command.SINGLE_SUCCESS;
+	}
+
 	private static int renderMod(CommandContext<ServerCommandSource> ctx) {
 		String modid = StringArgumentType.getString(ctx, "modid");
 
@@ -25,6 +25,8 @@
 package reborncore.common.blockentity;
 
 import com.mojang.serialization.DataResult;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
@@ -57,6 +59,7 @@ import reborncore.common.blocks.BlockMachineBase;
 import reborncore.common.fluid.FluidValue;
 import reborncore.common.misc.world.ChunkEventListener;
 import reborncore.common.misc.world.ChunkEventListeners;
+import reborncore.common.profiler.TickProfiler;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
 import reborncore.common.recipes.IUpgradeHandler;
@@ -83,8 +86,14 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	private boolean shapeFormed = false;
 	private boolean needsRematch = true;
 	private boolean matchSuccessful = false;
+	private boolean shapeStale = false;
 	private Set<BlockPos> shape = new HashSet<>();
+	@Nullable
+	private MultiblockTemplate multiblockTemplate = null;
+	// Positions of the shape that changed since the last verification
+	private final LongSet changedShapePositions = new LongOpenHashSet();
 
+	private static final int[] NO_SLOTS = new int[0];
 	private final static int syncCoolDown = 20;
 	private boolean markSync = false;
 	private int tickTime = 0;
@@ -122,6 +131,14 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	 * <p/>
 	 */
 	boolean muffled = false;
+	/**
+	 * Set when the cached upgrade modifiers have to be re-computed.
+	 */
+	private boolean upgradesDirty = true;
+	/**
+	 * Set when the machine is idle, a dormant machine skips its ticks until {@link #wakeUp()} is called.
+	 */
+	private boolean dormant = false;
 
 	public MachineBaseBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
 		super(type, pos, state);
@@ -130,16 +147,12 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	}
 
 	public void rematch() {
-		matchSuccessful = true;
-
-		Direction direction = getFacing().getOpposite();
-		MultiblockWriter.MultiblockVerifier verifier = new MultiblockWriter.MultiblockVerifier(getPos(), getWorld());
-		writeMultiblock(verifier.rotate(direction));
-
-		if (!verifier.isValid()) {
-			matchSuccessful = false;
+		if (multiblockTemplate == null) {
+			formShape();
 		}
 
+		changedShapePositions.clear();
+		matchSuccessful = multiblockTemplate.verifyAll(getWorld());
 		needsRematch = false;
 	}
 
@@ -160,9 +173,14 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	}
 
 	public void link() {
+		if (shapeStale) {
+			unlink();
+			shapeStale = false;
+		}
+
 		if (!shapeFormed) {
-			registerListeners(world);
 			formShape();
+			registerListeners(world);
 			shapeFormed = true;
 		}
 
@@ -175,6 +193,18 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 			}
 
 			syncWithAll();
+		} else if (!changedShapePositions.isEmpty()) {
+			// Only the changed positions have to be checked again
+			for (long changedPos : changedShapePositions) {
+				multiblockTemplate.verify(world, BlockPos.fromLong(changedPos));
+			}
+			changedShapePositions.clear();
+			matchSuccessful = multiblockTemplate.isValid();
+
+			if (matchSuccessful != isShapeValid()) {
+				setShapeValid(matchSuccessful);
+				syncWithAll();
+			}
 		}
 	}
 
@@ -182,16 +212,29 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		if (shapeFormed) {
 			unregisterListeners(world);
 			shape.clear();
+			multiblockTemplate = null;
+			changedShapePositions.clear();
 			shapeFormed = false;
 		}
 	}
 
 	public void formShape() {
-		Direction direction = getFacing().getOpposite();
-		MultiblockWriter.MultiblockShapeFormer writer = new MultiblockWriter.MultiblockShapeFormer(getPos());
-		writeMultiblock(writer.rotate(direction));
+		multiblockTemplate = MultiblockTemplate.compile(this);
+		shape = multiblockTemplate.getPositions();
+	}
 
-		shape = writer.getPos();
+	/**
+	 * Forms and verifies the shape again on the next tick.
+	 * Call this when something that {@link #writeMultiblock(MultiblockWriter)} depends on changes.
+	 */
+	public void invalidateShape() {
+		shapeStale = true;
+		needsRematch = true;
+		wakeUp();
+	}
+
+	public Set<BlockPos> getShape() {
+		return shape;
 	}
 
 	public Set<ChunkPos> getSpannedChunks() {
@@ -205,35 +248,50 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	}
 
 	public void registerListeners(World world) {
-		for (ChunkPos chunkPos : getSpannedChunks()) {
-			ChunkEventListeners.listeners.add(world, chunkPos, this);
-		}
+		ChunkEventListeners.register(world, this, shape);
 	}
 
 	public void unregisterListeners(World world) {
-		for (ChunkPos chunkPos : getSpannedChunks()) {
-			ChunkEventListeners.listeners.remove(world, chunkPos, this);
-		}
+		ChunkEventListeners.unregister(this);
 	}
 
 	@Override
 	public void onBlockUpdate(BlockPos pos) {
-		for (BlockPos posMember : shape) {
-			if (posMember.equals(pos)) {
-				needsRematch = true;
-				return;
-			}
-		}
+		// Only called for positions of the shape
+		changedShapePositions.add(pos.asLong());
+		wakeUp();
+	}
+
+	/**
+	 * Called when a block next to this machine changes.
+	 *
+	 * @param neighborPos {@link BlockPos} Position of the neighbour that changed
+	 */
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		wakeUp();
 	}
 
 	@Override
 	public void onUnloadChunk() {
 		needsRematch = true;
+		wakeUp();
 	}
 
 	@Override
 	public void onLoadChunk() {
 		needsRematch = true;
+		wakeUp();
+	}
+
+	@Override
+	public void setCachedState(BlockState state) {
+		super.setCachedState(state);
+
+		// The shape is rotated with the machine
+		if (multiblockTemplate != null && state.getBlock() instanceof BlockMachineBase blockMachineBase
+				&& blockMachineBase.getFacing(state) != multiblockTemplate.getFacing()) {
+			invalidateShape();
+		}
 	}
 
 	@Override
@@ -257,6 +315,7 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 
 	public void syncWithAll() {
 		this.markSync = true;
+		wakeUp();
 	}
 
 	public void onLoad() {
@@ -297,15 +356,8 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		if (getOptionalCrafter().isPresent()) {
 			crafter = getOptionalCrafter().get();
 		}
-		if (canBeUpgraded()) {
-			resetUpgrades();
-			for (int i = 0; i < getUpgradeSlotCount(); i++) {
-				ItemStack stack = getUpgradeInventory().getStack(i);
-				if (!stack.isEmpty() && stack.getItem() instanceof IUpgrade) {
-					((IUpgrade) stack.getItem()).process(this, this, stack);
-				}
-			}
-			afterUpgradesApplication();
+		if (canBeUpgraded() && (upgradesDirty || upgradeInventory.hasChanged())) {
+			applyUpgrades();
 		}
 		if (world == null || world.isClient) {
 			return;
@@ -314,15 +366,102 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		link();
 
 		if (crafter != null && isActive(RedstoneConfiguration.Element.RECIPE_PROCESSING)) {
+			long profileStart = TickProfiler.start();
 			crafter.updateEntity();
+			TickProfiler.stop(TickProfiler.Section.RECIPE_CRAFTER, this, profileStart);
 		}
 		if (slotConfiguration != null && isActive(RedstoneConfiguration.Element.ITEM_IO)) {
+			long profileStart = TickProfiler.start();
 			slotConfiguration.update(this);
+			TickProfiler.stop(TickProfiler.Section.SLOT_CONFIGURATION, this, profileStart);
 		}
 		if (fluidConfiguration != null && isActive(RedstoneConfiguration.Element.FLUID_IO)) {
 			fluidConfiguration.update(this);
 		}
 		syncIfNecessary();
+
+		if (canSleep() && isIdle()) {
+			dormant = true;
+			getOptionalCrafter().ifPresent(RecipeCrafter::onSleep);
+		}
+	}
+
+	/**
+	 * @return {@code boolean} If the machine is allowed to skip its ticks while it is idle
+	 */
+	protected boolean canSleep() {
+		return false;
+	}
+
+	/**
+	 * Checks if the machine has nothing to do until one of the wake events happens.
+	 * Machines that poll their neighbours, for example with automatic item or fluid transfer, are never idle.
+	 * A crafter is idle without a recipe, or when its recipe waits for energy or output space.
+	 *
+	 * @return {@code boolean} If the machine can go dormant
+	 */
+	protected boolean isIdle() {
+		if (hasPendingUpdates()) {
+			return false;
+		}
+		if (slotConfiguration != null && slotConfiguration.hasAutoIO()) {
+			return false;
+		}
+		if (fluidConfiguration != null && (fluidConfiguration.autoInput() || fluidConfiguration.autoOutput())) {
+			return false;
+		}
+		return getOptionalCrafter().map(RecipeCrafter::isIdle).orElse(false);
+	}
+
+	/**
+	 * Overrides of {@link #isIdle()} must check this first, a machine can't go dormant before these are handled.
+	 *
+	 * @return {@code boolean} If the multiblock shape still has to be matched or the machine still has to sync
+	 */
+	protected final boolean hasPendingUpdates() {
+		return needsRematch || !changedShapePositions.isEmpty() || markSync;
+	}
+
+	public boolean isDormant() {
+		return dormant;
+	}
+
+	/**
+	 * Resumes ticking a dormant machine.
+	 * This is called for everything that can give an idle machine work: inventory changes, energy insertion,
+	 * neighbour and redstone updates, configuration changes and opening the GUI.
+	 */
+	public void wakeUp() {
+		if (dormant) {
+			dormant = false;
+			// Not every inventory change goes through setHashChanged, so make sure that the crafter looks for a recipe again.
+			getOptionalCrafter().ifPresent(crafter -> crafter.setInvDirty(true));
+		}
+	}
+
+	/**
+	 * Re-computes the upgrade modifiers from the upgrade inventory.
+	 * The results are cached until the upgrades are changed or invalidated with {@link #markUpgradesDirty()}.
+	 */
+	public void applyUpgrades() {
+		upgradesDirty = false;
+		upgradeInventory.resetHasChanged();
+		resetUpgrades();
+		for (int i = 0; i < getUpgradeSlotCount(); i++) {
+			ItemStack stack = getUpgradeInventory().getStack(i);
+			if (!stack.isEmpty() && stack.getItem() instanceof IUpgrade) {
+				((IUpgrade) stack.getItem()).process(this, this, stack);
+			}
+		}
+		afterUpgradesApplication();
+	}
+
+	/**
+	 * Re-apply the upgrades on the next tick.
+	 * Call this when something the upgrades depend on has changed, changes to the upgrade inventory are detected automatically.
+	 */
+	public void markUpgradesDirty() {
+		upgradesDirty = true;
 	}
 
 	public void resetUpgrades() {
@@ -416,6 +555,7 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 			}
 		}
 		upgradeInventory.read(tagCompound, "Upgrades", registryLookup);
+		markUpgradesDirty();
 	}
 
 	@Override
@@ -633,12 +773,9 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	@Override
 	public int[] getAvailableSlots(Direction side) {
 		if(slotConfiguration == null){
-			return new int[]{}; // I think should be ok, if needed this can return all the slots
+			return NO_SLOTS; // I think should be ok, if needed this can return all the slots
 		}
-		return slotConfiguration.getSlotsForSide(side).stream()
-			.filter(Objects::nonNull)
-			.filter(slotConfig -> slotConfig.getSlotIO().ioConfig != SlotConfiguration.ExtractConfig.NONE)
-			.mapToInt(SlotConfiguration.SlotConfig::getSlotID).toArray();
+		return slotConfiguration.getAvailableSlots(side);
 	}
 
 	@Override
@@ -647,6 +784,9 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 			return false;
 		}
 		SlotConfiguration.SlotConfigHolder slotConfigHolder = slotConfiguration.getSlotDetails(index);
+		if (slotConfigHolder == null) {
+			return false;
+		}
 		SlotConfiguration.SlotConfig slotConfig = slotConfigHolder.getSideDetail(direction);
 		if (slotConfig.getSlotIO().ioConfig.isInsert()) {
 			if (slotConfigHolder.filter() && getOptionalCrafter().isPresent()) {
@@ -664,6 +804,9 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 			return false;
 		}
 		SlotConfiguration.SlotConfigHolder slotConfigHolder = slotConfiguration.getSlotDetails(index);
+		if (slotConfigHolder == null) {
+			return false;
+		}
 		SlotConfiguration.SlotConfig slotConfig = slotConfigHolder.getSideDetail(direction);
 		return slotConfig.getSlotIO().ioConfig.isExtract();
 	}
@@ -682,6 +825,8 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 
 	public void setRedstoneConfiguration(RedstoneConfiguration redstoneConfiguration) {
 		this.redstoneConfiguration = redstoneConfiguration;
+		markUpgradesDirty();
+		wakeUp();
 	}
 
 	@Override
@@ -0,0 +1,148 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.blockentity;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * A multiblock shape compiled into flat arrays of positions and predicates, for a single machine and facing.
+ * <p>
+ * The template remembers which entries failed their last check, so a block change only needs to
+ * re-test the entries at the changed position. Predicates are expected to only look at their own position.
+ */
+public final class MultiblockTemplate {
+	private final Direction facing;
+	private final long[] positions;
+	private final BiPredicate<BlockView, BlockPos>[] predicates;
+	// The first entry at each position, further entries at the same position are chained through nextEntry
+	private final Long2IntMap firstEntry;
+	private final int[] nextEntry;
+	private final BitSet invalidEntries;
+
+	private MultiblockTemplate(Direction facing, long[] positions, BiPredicate<BlockView, BlockPos>[] predicates) {
+		this.facing = facing;
+		this.positions = positions;
+		this.predicates = predicates;
+		this.firstEntry = new Long2IntOpenHashMap(positions.length);
+		this.firstEntry.defaultReturnValue(-1);
+		this.nextEntry = new int[positions.length];
+		this.invalidEntries = new BitSet(positions.length);
+
+		for (int i = positions.length - 1; i >= 0; i--) {
+			nextEntry[i] = firstEntry.put(positions[i], i);
+		}
+	}
+
+	/**
+	 * Compiles the shape of a machine for its current facing
+	 *
+	 * @param machine {@link MachineBaseBlockEntity} The machine to compile the shape of
+	 * @return {@link MultiblockTemplate} The compiled shape, initially assumed to be valid
+	 */
+	public static MultiblockTemplate compile(MachineBaseBlockEntity machine) {
+		Direction facing = machine.getFacing();
+		Compiler compiler = new Compiler(machine.getPos());
+		machine.writeMultiblock(compiler.rotate(facing.getOpposite()));
+		return compiler.build(facing);
+	}
+
+	public Direction getFacing() {
+		return facing;
+	}
+
+	public Set<BlockPos> getPositions() {
+		Set<BlockPos> set = new HashSet<>(firstEntry.size());
+		for (long pos : firstEntry.keySet()) {
+			set.add(BlockPos.fromLong(pos));
+		}
+		return set;
+	}
+
+	public boolean isValid() {
+		return invalidEntries.isEmpty();
+	}
+
+	/**
+	 * Tests every entry of the template
+	 *
+	 * @param view {@link BlockView} The view to test against
+	 * @return {@code boolean} If all entries are valid
+	 */
+	public boolean verifyAll(BlockView view) {
+		for (int i = 0; i < positions.length; i++) {
+			invalidEntries.set(i, !predicates[i].test(view, BlockPos.fromLong(positions[i])));
+		}
+		return isValid();
+	}
+
+	/**
+	 * Re-tests the entries at a single position, keeping the results of all other entries
+	 *
+	 * @param view {@link BlockView} The view to test against
+	 * @param pos  {@link BlockPos} The position that changed
+	 * @return {@code boolean} If all entries are valid
+	 */
+	public boolean verify(BlockView view, BlockPos pos) {
+		for (int i = firstEntry.get(pos.asLong()); i != -1; i = nextEntry[i]) {
+			invalidEntries.set(i, !predicates[i].test(view, pos));
+		}
+		return isValid();
+	}
+
+	private static final class Compiler implements MultiblockWriter {
+		private final BlockPos relative;
+		private final LongArrayList positions = new LongArrayList();
+		private final List<BiPredicate<BlockView, BlockPos>> predicates = new ArrayList<>();
+
+		private Compiler(BlockPos relative) {
+			this.relative = relative;
+		}
+
+		@Override
+		public MultiblockWriter add(int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
+			positions.add(BlockPos.asLong(relative.getX() + x, relative.getY() + y, relative.getZ() + z));
+			predicates.add(predicate);
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		private MultiblockTemplate build(Direction facing) {
+			return new MultiblockTemplate(facing, positions.toLongArray(), predicates.toArray(new BiPredicate[0]));
+		}
+	}
+}
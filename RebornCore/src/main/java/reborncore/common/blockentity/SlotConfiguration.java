@@ -26,8 +26,11 @@ package reborncore.common.blockentity;
 
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import io.netty.buffer.ByteBuf;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.ItemStack;
@@ -35,6 +38,7 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.StringNbtReader;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.Direction;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.Nullable;
@@ -51,10 +55,20 @@ public class SlotConfiguration implements NBTSerializable {
 		.xmap(SlotConfiguration::new, SlotConfiguration::getSlotDetails);
 
 	List<SlotConfigHolder> slotDetails = new ArrayList<>();
+	// Index of slotDetails by slot id
+	private SlotConfigHolder[] slotDetailsById = new SlotConfigHolder[0];
+	// The slots accessible from each side, indexed by Direction#getId. Null entries are rebuilt on demand
+	private final int[][] availableSlots = new int[6][];
 
 	@Nullable
 	Inventory inventory;
 
+	// Cached transfer API access for automatic item IO, only used on the server
+	@Nullable
+	private InventoryStorage machineStorage;
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<Storage<ItemVariant>, Direction>[] adjacentCaches = new BlockApiCache[6];
+
 	public SlotConfiguration(RebornInventory<?> inventory) {
 		this.inventory = inventory;
 
@@ -64,8 +78,10 @@ public class SlotConfiguration implements NBTSerializable {
 	}
 
 	private SlotConfiguration(List<SlotConfigHolder> slotDetails) {
-		this.slotDetails = slotDetails;
 		this.inventory = null;
+		for (SlotConfigHolder slotConfigHolder : slotDetails) {
+			updateSlotDetails(slotConfigHolder);
+		}
 	}
 
 	public void update(MachineBaseBlockEntity machineBase) {
@@ -83,8 +99,27 @@ public class SlotConfiguration implements NBTSerializable {
 			}
 		}
 		if (!machineBase.getWorld().isClient && machineBase.getWorld().getTime() % machineBase.slotTransferSpeed() == 0) {
-			getSlotDetails().forEach(slotConfigHolder -> slotConfigHolder.handleItemIO(machineBase));
+			for (int i = 0; i < slotDetails.size(); i++) {
+				slotDetails.get(i).handleItemIO(machineBase, this);
+			}
+		}
+	}
+
+	private InventoryStorage getMachineStorage(MachineBaseBlockEntity machineBase) {
+		if (machineStorage == null) {
+			machineStorage = InventoryStorage.of(machineBase, null);
+		}
+		return machineStorage;
+	}
+
+	@Nullable
+	private Storage<ItemVariant> getAdjacentStorage(MachineBaseBlockEntity machineBase, Direction side) {
+		BlockApiCache<Storage<ItemVariant>, Direction> cache = adjacentCaches[side.getId()];
+		if (cache == null) {
+			cache = BlockApiCache.create(ItemStorage.SIDED, (ServerWorld) machineBase.getWorld(), machineBase.getPos().offset(side));
+			adjacentCaches[side.getId()] = cache;
 		}
+		return cache.find(side.getOpposite());
 	}
 
 	public SlotConfiguration(NbtCompound tagCompound) {
@@ -102,22 +137,64 @@ public class SlotConfiguration implements NBTSerializable {
 	 * @return {@link SlotConfigHolder} Updated SlotConfigHolder
 	 */
 	public SlotConfigHolder updateSlotDetails(SlotConfigHolder slotConfigHolder) {
-		SlotConfigHolder lookup = getSlotDetails(slotConfigHolder.slotID);
+		int id = slotConfigHolder.slotID;
+		SlotConfigHolder lookup = getSlotDetails(id);
 		if (lookup != null) {
-			slotDetails.remove(lookup);
+			slotDetails.set(slotDetails.indexOf(lookup), slotConfigHolder);
+		} else {
+			slotDetails.add(slotConfigHolder);
 		}
-		slotDetails.add(slotConfigHolder);
+
+		if (id >= slotDetailsById.length) {
+			slotDetailsById = Arrays.copyOf(slotDetailsById, id + 1);
+		}
+		slotDetailsById[id] = slotConfigHolder;
+		slotConfigHolder.owner = this;
+		invalidateAvailableSlots();
 		return slotConfigHolder;
 	}
 
 	@Nullable
 	public SlotConfigHolder getSlotDetails(int id) {
-		for (SlotConfigHolder detail : slotDetails) {
-			if (detail.slotID == id) {
-				return detail;
+		if (id < 0 || id >= slotDetailsById.length) {
+			return null;
+		}
+		return slotDetailsById[id];
+	}
+
+	/**
+	 * @return {@code boolean} If any slot automatically moves items from or to its neighbours
+	 */
+	public boolean hasAutoIO() {
+		for (SlotConfigHolder holder : slotDetails) {
+			if (holder.autoInput() || holder.autoOutput()) {
+				return true;
 			}
 		}
-		return null;
+		return false;
+	}
+
+	/**
+	 * Gets the slots that can be accessed from a side. The returned array is cached and must not be modified.
+	 *
+	 * @param side {@link Direction} The side to get the slots for
+	 * @return {@code int[]} The ids of all slots that are not disabled on the side
+	 */
+	public int[] getAvailableSlots(Direction side) {
+		int[] slots = availableSlots[side.getId()];
+		if (slots == null) {
+			slots = slotDetails.stream()
+				.map(slotConfigHolder -> slotConfigHolder.getSideDetail(side))
+				.filter(slotConfig -> slotConfig.getSlotIO().getIoConfig() != ExtractConfig.NONE)
+				.mapToInt(SlotConfig::getSlotID)
+				.toArray();
+			availableSlots[side.getId()] = slots;
+		}
+		return slots;
+	}
+
+	private void invalidateAvailableSlots() {
+		Arrays.fill(availableSlots, null);
 	}
 
 	public List<SlotConfig> getSlotsForSide(Direction facing) {
@@ -155,12 +232,16 @@ public class SlotConfiguration implements NBTSerializable {
 		);
 
 		int slotID;
-		HashMap<Direction, SlotConfig> sideMap;
+		// Indexed by Direction#getId
+		final SlotConfig[] sides = new SlotConfig[6];
 		boolean input, output, filter;
+		// The configuration this holder is part of, notified when a side changes
+		@Nullable
+		SlotConfiguration owner;
 
-		private SlotConfigHolder(int slotID, HashMap<Direction, SlotConfig> sideMap, boolean input, boolean output, boolean filter) {
+		private SlotConfigHolder(int slotID, Map<Direction, SlotConfig> sideMap, boolean input, boolean output, boolean filter) {
 			this.slotID = slotID;
-			this.sideMap = sideMap;
+			sideMap.forEach((side, slotConfig) -> sides[side.getId()] = slotConfig);
 			this.input = input;
 			this.output = output;
 			this.filter = filter;
@@ -168,50 +249,47 @@ public class SlotConfiguration implements NBTSerializable {
 
 		public SlotConfigHolder(int slotID) {
 			this.slotID = slotID;
-			sideMap = new HashMap<>();
-			Arrays.stream(Direction.values()).forEach(facing -> sideMap.put(facing, new SlotConfig(facing, slotID)));
+			for (Direction facing : Direction.values()) {
+				sides[facing.getId()] = new SlotConfig(facing, slotID);
+			}
 		}
 
 		public SlotConfigHolder(NbtCompound tagCompound) {
-			sideMap = new HashMap<>();
 			read(tagCompound);
-			Validate.isTrue(Arrays.stream(Direction.values())
-								.map(enumFacing -> sideMap.get(enumFacing))
-								.noneMatch(Objects::isNull),
-							"sideMap failed to load from nbt"
-			);
+			Validate.isTrue(Arrays.stream(sides).noneMatch(Objects::isNull), "sideMap failed to load from nbt");
 		}
 
 		public SlotConfig getSideDetail(Direction side) {
 			Validate.notNull(side, "A none null side must be used");
-			SlotConfig slotConfig = sideMap.get(side);
+			SlotConfig slotConfig = sides[side.getId()];
 			Validate.notNull(slotConfig, "slotConfig was null for side " + side);
 			return slotConfig;
 		}
 
 		public List<SlotConfig> getAllSides() {
-			return new ArrayList<>(sideMap.values());
+			return new ArrayList<>(Arrays.asList(sides));
 		}
 
 		public void updateSlotConfig(SlotConfig config) {
-			SlotConfig toEdit = sideMap.get(config.side);
+			SlotConfig toEdit = sides[config.side.getId()];
 			toEdit.slotIO = config.slotIO;
+			if (owner != null) {
+				owner.invalidateAvailableSlots();
+			}
 		}
 
-		private void handleItemIO(MachineBaseBlockEntity machineBase) {
+		private void handleItemIO(MachineBaseBlockEntity machineBase, SlotConfiguration slotConfiguration) {
 			if (!input && !output) {
 				return;
 			}
-			getAllSides().stream()
-				.filter(config -> config.getSlotIO().getIoConfig() != ExtractConfig.NONE)
-				.forEach(config -> {
-					if (input && config.getSlotIO().getIoConfig() == ExtractConfig.INPUT) {
-						config.handleItemInput(machineBase);
-					}
-					if (output && config.getSlotIO().getIoConfig() == ExtractConfig.OUTPUT) {
-						config.handleItemOutput(machineBase);
-					}
-				});
+			for (SlotConfig config : sides) {
+				ExtractConfig ioConfig = config.getSlotIO().getIoConfig();
+				if (input && ioConfig == ExtractConfig.INPUT) {
+					config.handleItemInput(machineBase, slotConfiguration);
+				} else if (output && ioConfig == ExtractConfig.OUTPUT) {
+					config.handleItemOutput(machineBase, slotConfiguration);
+				}
+			}
 		}
 
 		public boolean autoInput() {
@@ -243,6 +321,10 @@ public class SlotConfiguration implements NBTSerializable {
 		}
 
 		public HashMap<Direction, SlotConfig> getSideMap() {
+			HashMap<Direction, SlotConfig> sideMap = new HashMap<>();
+			for (SlotConfig slotConfig : sides) {
+				sideMap.put(slotConfig.side, slotConfig);
+			}
 			return sideMap;
 		}
 
@@ -250,7 +332,7 @@ public class SlotConfiguration implements NBTSerializable {
 		public NbtCompound write() {
 			NbtCompound compound = new NbtCompound();
 			compound.putInt("slotID", slotID);
-			Arrays.stream(Direction.values()).forEach(facing -> compound.put("side_" + facing.ordinal(), sideMap.get(facing).write()));
+			Arrays.stream(Direction.values()).forEach(facing -> compound.put("side_" + facing.ordinal(), sides[facing.getId()].write()));
 			compound.putBoolean("input", input);
 			compound.putBoolean("output", output);
 			compound.putBoolean("filter", filter);
@@ -259,12 +341,12 @@ public class SlotConfiguration implements NBTSerializable {
 
 		@Override
 		public void read(NbtCompound nbt) {
-			sideMap.clear();
+			Arrays.fill(sides, null);
 			slotID = nbt.getInt("slotID");
 			Arrays.stream(Direction.values()).forEach(facing -> {
 				NbtCompound compound = nbt.getCompound("side_" + facing.ordinal());
 				SlotConfig config = new SlotConfig(compound);
-				sideMap.put(facing, config);
+				sides[facing.getId()] = config;
 			});
 			input = nbt.getBoolean("input");
 			output = nbt.getBoolean("output");
@@ -318,32 +400,42 @@ public class SlotConfiguration implements NBTSerializable {
 			return slotID;
 		}
 
-		private void handleItemInput(MachineBaseBlockEntity machineBase) {
+		private void handleItemInput(MachineBaseBlockEntity machineBase, SlotConfiguration slotConfiguration) {
 			RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
 			ItemStack targetStack = inventory.getStack(slotID);
 			if (targetStack.getMaxCount() == targetStack.getCount()) {
 				return;
 			}
 
+			Storage<ItemVariant> source = slotConfiguration.getAdjacentStorage(machineBase, side);
+			if (source == null) {
+				return;
+			}
+
 			StorageUtil.move(
-					ItemStorage.SIDED.find(machineBase.getWorld(), machineBase.getPos().offset(side), side.getOpposite()),
-					InventoryStorage.of(machineBase, null).getSlot(slotID),
+					source,
+					slotConfiguration.getMachineStorage(machineBase).getSlot(slotID),
 					iv -> true,
 					4, // Move up to 4 per tick.
 					null
 			);
 		}
 
-		private void handleItemOutput(MachineBaseBlockEntity machineBase) {
+		private void handleItemOutput(MachineBaseBlockEntity machineBase, SlotConfiguration slotConfiguration) {
 			RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
 			ItemStack sourceStack = inventory.getStack(slotID);
 			if (sourceStack.isEmpty()) {
 				return;
 			}
 
+			Storage<ItemVariant> target = slotConfiguration.getAdjacentStorage(machineBase, side);
+			if (target == null) {
+				return;
+			}
+
 			StorageUtil.move(
-					InventoryStorage.of(machineBase, null).getSlot(slotID),
-					ItemStorage.SIDED.find(machineBase.getWorld(), machineBase.getPos().offset(side), side.getOpposite()),
+					slotConfiguration.getMachineStorage(machineBase).getSlot(slotID),
+					target,
 					iv -> true,
 					Long.MAX_VALUE,
 					null
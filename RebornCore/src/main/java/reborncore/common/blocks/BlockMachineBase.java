@@ -207,6 +207,9 @@ public abstract class BlockMachineBase extends BaseBlockEntityProvider implement
 		}
 
 		if (getGui() != null && !playerIn.isSneaking()) {
+			if (blockEntity instanceof MachineBaseBlockEntity machineBase) {
+				machineBase.wakeUp();
+			}
 			getGui().open(playerIn, pos, worldIn);
 			return ActionResult.SUCCESS;
 		}
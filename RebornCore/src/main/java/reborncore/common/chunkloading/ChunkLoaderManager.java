@@ -27,6 +27,11 @@ package reborncore.common.chunkloading;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtOps;
@@ -36,7 +41,6 @@ import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ChunkTicketType;
-import net.minecraft.server.world.ServerChunkManager;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
@@ -45,15 +49,18 @@ import net.minecraft.world.PersistentState;
 import net.minecraft.world.World;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Nullable;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 // This does not do the actual chunk loading, just keeps track of what chunks the chunk loader has loaded
 public class ChunkLoaderManager extends PersistentState {
@@ -73,50 +80,74 @@ public class ChunkLoaderManager extends PersistentState {
 		return serverWorld.getPersistentStateManager().getOrCreate(TYPE, KEY);
 	}
 
-	private final List<LoadedChunk> loadedChunks = new ArrayList<>();
+	// Worlds without any loaded chunk are removed, in insertion order to keep the saved order stable
+	private final Map<Identifier, WorldChunks> worlds = new LinkedHashMap<>();
 
 	public static ChunkLoaderManager fromTag(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		ChunkLoaderManager chunkLoaderManager = new ChunkLoaderManager();
 
-		chunkLoaderManager.loadedChunks.clear();
-
 		List<LoadedChunk> chunks = CODEC.parse(NbtOps.INSTANCE, tag.getList("loadedchunks", NbtElement.COMPOUND_TYPE))
 				.result()
 				.orElse(Collections.emptyList());
 
-		chunkLoaderManager.loadedChunks.addAll(chunks);
+		for (LoadedChunk loadedChunk : chunks) {
+			chunkLoaderManager.worlds.computeIfAbsent(loadedChunk.world(), world -> new WorldChunks()).add(loadedChunk);
+		}
 
 		return chunkLoaderManager;
 	}
 
 	@Override
 	public NbtCompound writeNbt(NbtCompound compoundTag, RegistryWrapper.WrapperLookup registryLookup) {
-		CODEC.encodeStart(NbtOps.INSTANCE, loadedChunks)
+		CODEC.encodeStart(NbtOps.INSTANCE, getAllLoadedChunks())
 				.result()
 				.ifPresent(tag -> compoundTag.put("loadedchunks", tag));
 		return compoundTag;
 	}
 
+	@Nullable
+	private WorldChunks getWorldChunks(World world) {
+		return worlds.get(getWorldName(world));
+	}
+
+	private List<LoadedChunk> getAllLoadedChunks() {
+		List<LoadedChunk> chunks = new ArrayList<>();
+		for (WorldChunks worldChunks : worlds.values()) {
+			for (Long2ObjectMap<LoadedChunk> loaderChunks : worldChunks.chunksByLoader.values()) {
+				chunks.addAll(loaderChunks.values());
+			}
+		}
+		return chunks;
+	}
+
 	public Optional<LoadedChunk> getLoadedChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunk().equals(chunkPos))
-			.filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))
-			.findFirst();
+		WorldChunks worldChunks = getWorldChunks(world);
+		if (worldChunks == null) {
+			return Optional.empty();
+		}
+
+		Long2ObjectMap<LoadedChunk> loaderChunks = worldChunks.chunksByLoader.get(chunkLoader);
+		return loaderChunks == null ? Optional.empty() : Optional.ofNullable(loaderChunks.get(chunkPos.toLong()));
 	}
 
 	public Optional<LoadedChunk> getLoadedChunk(World world, ChunkPos chunkPos){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunk().equals(chunkPos))
-			.findFirst();
+		WorldChunks worldChunks = getWorldChunks(world);
+		if (worldChunks == null) {
+			return Optional.empty();
+		}
+
+		List<LoadedChunk> holders = worldChunks.ticketHolders.get(chunkPos.toLong());
+		return holders == null ? Optional.empty() : Optional.of(holders.get(0));
 	}
 
 	public List<LoadedChunk> getLoadedChunks(World world, BlockPos chunkLoader){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))
-			.collect(Collectors.toList());
+		WorldChunks worldChunks = getWorldChunks(world);
+		if (worldChunks == null) {
+			return new ArrayList<>();
+		}
+
+		Long2ObjectMap<LoadedChunk> loaderChunks = worldChunks.chunksByLoader.get(chunkLoader);
+		return loaderChunks == null ? new ArrayList<>() : new ArrayList<>(loaderChunks.values());
 	}
 
 	public boolean isChunkLoaded(World world, ChunkPos chunkPos, BlockPos chunkLoader){
@@ -124,45 +155,107 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public boolean isChunkLoaded(World world, ChunkPos chunkPos){
-		return getLoadedChunk(world, chunkPos).isPresent();
+		WorldChunks worldChunks = getWorldChunks(world);
+		return worldChunks != null && worldChunks.ticketHolders.containsKey(chunkPos.toLong());
 	}
 
 
 	public void loadChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader, String player){
 		Validate.isTrue(!isChunkLoaded(world, chunkPos, chunkLoader), "chunk is already loaded");
-		LoadedChunk loadedChunk = new LoadedChunk(chunkPos, getWorldName(world), player, chunkLoader);
-		loadedChunks.add(loadedChunk);
-
-		loadChunk((ServerWorld) world, loadedChunk);
-
+		addChunk((ServerWorld) world, new LoadedChunk(chunkPos, getWorldName(world), player, chunkLoader));
 		markDirty();
 	}
 
 	public void unloadChunkLoader(World world, BlockPos chunkLoader){
-		getLoadedChunks(world, chunkLoader).forEach(loadedChunk -> unloadChunk(world, loadedChunk.chunk(), chunkLoader));
+		WorldChunks worldChunks = getWorldChunks(world);
+		if (worldChunks == null) {
+			return;
+		}
+
+		Long2ObjectMap<LoadedChunk> loaderChunks = worldChunks.chunksByLoader.get(chunkLoader);
+		if (loaderChunks == null) {
+			return;
+		}
+
+		for (LoadedChunk loadedChunk : new ArrayList<>(loaderChunks.values())) {
+			removeChunk((ServerWorld) world, worldChunks, loadedChunk);
+		}
+		markDirty();
 	}
 
 	public void unloadChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader){
 		Optional<LoadedChunk> optionalLoadedChunk = getLoadedChunk(world, chunkPos, chunkLoader);
 		Validate.isTrue(optionalLoadedChunk.isPresent(), "chunk is not loaded");
 
-		LoadedChunk loadedChunk = optionalLoadedChunk.get();
+		removeChunk((ServerWorld) world, getWorldChunks(world), optionalLoadedChunk.get());
+		markDirty();
+	}
 
-		loadedChunks.remove(loadedChunk);
+	/**
+	 * Changes the chunks loaded by a chunk loader, only the chunks that are added or removed are (un)loaded.
+	 *
+	 * @param world       {@link World} The world of the chunk loader
+	 * @param chunkLoader {@link BlockPos} The position of the chunk loader
+	 * @param chunks      {@link Collection} All chunks the chunk loader should load
+	 * @param player      {@link String} The owner of newly loaded chunks
+	 * @return {@link ChunkSyncPayload} The changes, to update clients that show the chunks of the chunk loader
+	 */
+	public ChunkSyncPayload updateChunkLoader(World world, BlockPos chunkLoader, Collection<ChunkPos> chunks, String player) {
+		LongSet wanted = new LongOpenHashSet(chunks.size());
+		chunks.forEach(chunkPos -> wanted.add(chunkPos.toLong()));
+
+		List<LoadedChunk> removed = new ArrayList<>();
+		for (LoadedChunk loadedChunk : getLoadedChunks(world, chunkLoader)) {
+			if (!wanted.remove(loadedChunk.chunk().toLong())) {
+				removeChunk((ServerWorld) world, getWorldChunks(world), loadedChunk);
+				removed.add(loadedChunk);
+			}
+		}
 
-		if(!isChunkLoaded(world, loadedChunk.chunk())){
-			final ServerChunkManager serverChunkManager = ((ServerWorld) world).getChunkManager();
-			serverChunkManager.removeTicket(ChunkLoaderManager.CHUNK_LOADER, loadedChunk.chunk(), RADIUS, loadedChunk.chunk());
+		List<LoadedChunk> added = new ArrayList<>();
+		for (ChunkPos chunkPos : chunks) {
+			if (wanted.contains(chunkPos.toLong())) {
+				LoadedChunk loadedChunk = new LoadedChunk(chunkPos, getWorldName(world), player, chunkLoader);
+				addChunk((ServerWorld) world, loadedChunk);
+				added.add(loadedChunk);
+			}
+		}
+
+		if (!added.isEmpty() || !removed.isEmpty()) {
+			markDirty();
+		}
+		return ChunkSyncPayload.changes(added, removed);
+	}
+
+	private void addChunk(ServerWorld world, LoadedChunk loadedChunk) {
+		if (worlds.computeIfAbsent(loadedChunk.world(), name -> new WorldChunks()).add(loadedChunk)) {
+			loadChunk(world, loadedChunk);
+		}
+	}
+
+	private void removeChunk(ServerWorld world, WorldChunks worldChunks, LoadedChunk loadedChunk) {
+		if (worldChunks.remove(loadedChunk)) {
+			world.getChunkManager().removeTicket(ChunkLoaderManager.CHUNK_LOADER, loadedChunk.chunk(), RADIUS, loadedChunk.chunk());
+		}
+		if (worldChunks.chunksByLoader.isEmpty()) {
+			worlds.remove(loadedChunk.world());
 		}
-		markDirty();
 	}
 
 	public void onServerWorldLoad(ServerWorld world) {
-		loadedChunks.forEach(loadedChunk -> loadChunk(world, loadedChunk));
+		WorldChunks worldChunks = getWorldChunks(world);
+		if (worldChunks == null) {
+			return;
+		}
+
+		// One ticket per chunk, no matter how many chunk loaders hold it
+		for (List<LoadedChunk> holders : worldChunks.ticketHolders.values()) {
+			loadChunk(world, holders.get(0));
+		}
 	}
 
 	public void onServerWorldTick(ServerWorld world) {
-		if (!loadedChunks.isEmpty()) {
+		if (!worlds.isEmpty()) {
 			world.resetIdleTimeout();
 		}
 	}
@@ -176,11 +269,18 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public void syncChunkLoaderToClient(ServerPlayerEntity serverPlayerEntity, BlockPos chunkLoader){
-		syncToClient(serverPlayerEntity, loadedChunks.stream().filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader)).collect(Collectors.toList()));
+		List<LoadedChunk> chunks = new ArrayList<>();
+		for (WorldChunks worldChunks : worlds.values()) {
+			Long2ObjectMap<LoadedChunk> loaderChunks = worldChunks.chunksByLoader.get(chunkLoader);
+			if (loaderChunks != null) {
+				chunks.addAll(loaderChunks.values());
+			}
+		}
+		syncToClient(serverPlayerEntity, chunks);
 	}
 
 	public void syncAllToClient(ServerPlayerEntity serverPlayerEntity) {
-		syncToClient(serverPlayerEntity, loadedChunks);
+		syncToClient(serverPlayerEntity, getAllLoadedChunks());
 	}
 
 	public void clearClient(ServerPlayerEntity serverPlayerEntity) {
@@ -188,7 +288,11 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public void syncToClient(ServerPlayerEntity serverPlayerEntity, List<LoadedChunk> chunks) {
-		NetworkManager.sendToPlayer(new ChunkSyncPayload(chunks), serverPlayerEntity);
+		syncToClient(serverPlayerEntity, ChunkSyncPayload.replace(chunks));
+	}
+
+	public void syncToClient(ServerPlayerEntity serverPlayerEntity, ChunkSyncPayload payload) {
+		NetworkManager.sendToPlayer(payload, serverPlayerEntity);
 	}
 
 	private void loadChunk(ServerWorld world, LoadedChunk loadedChunk) {
@@ -196,6 +300,54 @@ public class ChunkLoaderManager extends PersistentState {
 		world.getChunkManager().addTicket(ChunkLoaderManager.CHUNK_LOADER, chunkPos, RADIUS, chunkPos);
 	}
 
+	/**
+	 * The loaded chunks of a single world, indexed by chunk and by chunk loader.
+	 */
+	private static final class WorldChunks {
+		// Chunk -> the chunk loaders holding it, the chunk has a ticket while it has any
+		private final Long2ObjectMap<List<LoadedChunk>> ticketHolders = new Long2ObjectOpenHashMap<>();
+		// Chunk loader -> its chunks, in load order
+		private final Map<BlockPos, Long2ObjectMap<LoadedChunk>> chunksByLoader = new LinkedHashMap<>();
+
+		/**
+		 * @return {@code boolean} True if this is the first holder of the chunk, so that it needs a ticket
+		 */
+		private boolean add(LoadedChunk loadedChunk) {
+			long chunkPos = loadedChunk.chunk().toLong();
+			LoadedChunk previous = chunksByLoader.computeIfAbsent(loadedChunk.chunkLoader(), chunkLoader -> new Long2ObjectLinkedOpenHashMap<>())
+				.putIfAbsent(chunkPos, loadedChunk);
+			if (previous != null) {
+				return false;
+			}
+
+			List<LoadedChunk> holders = ticketHolders.computeIfAbsent(chunkPos, pos -> new ArrayList<>(1));
+			holders.add(loadedChunk);
+			return holders.size() == 1;
+		}
+
+		/**
+		 * @return {@code boolean} True if this was the last holder of the chunk, so that its ticket can be removed
+		 */
+		private boolean remove(LoadedChunk loadedChunk) {
+			long chunkPos = loadedChunk.chunk().toLong();
+			Long2ObjectMap<LoadedChunk> loaderChunks = chunksByLoader.get(loadedChunk.chunkLoader());
+			if (loaderChunks == null || loaderChunks.remove(chunkPos) == null) {
+				return false;
+			}
+			if (loaderChunks.isEmpty()) {
+				chunksByLoader.remove(loadedChunk.chunkLoader());
+			}
+
+			List<LoadedChunk> holders = ticketHolders.get(chunkPos);
+			holders.remove(loadedChunk);
+			if (holders.isEmpty()) {
+				ticketHolders.remove(chunkPos);
+				return true;
+			}
+			return false;
+		}
+	}
+
 	public record LoadedChunk(ChunkPos chunk, Identifier world, String player, BlockPos chunkLoader) {
 		public static Codec<ChunkPos> CHUNK_POS_CODEC = RecordCodecBuilder.create(instance ->
 			instance.group(
@@ -0,0 +1,183 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.crafting;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of all recipes of a {@link RecipeType}, keyed by the items their ingredients accept.
+ * <p>
+ * The index is built lazily and rebuilt on every datapack reload and recipe sync, through a {@link ReloadingRecipeCache}.
+ *
+ * @param <T> The recipe type
+ */
+public final class RecipeIndex<T extends RebornRecipe> {
+	// Shared by the server and client threads, the caches themselves keep one index per side.
+	private static final Map<RecipeType<?>, ReloadingRecipeCache<RebornRecipeInput, ?, ?>> CACHES = new ConcurrentHashMap<>();
+
+	private final List<RecipeEntry<T>> entries;
+	private final List<T> recipes;
+	private final Map<Item, List<T>> recipesByItem = new Reference2ObjectOpenHashMap<>();
+	/**
+	 * Recipes that cannot be keyed by item, they are always candidates.
+	 * These are recipes without ingredients, or with custom ingredients that require testing.
+	 */
+	private final List<T> unindexedRecipes = new ArrayList<>();
+	private final Reference2IntMap<T> recipeOrder = new Reference2IntOpenHashMap<>();
+
+	private RecipeIndex(Collection<RecipeEntry<T>> source) {
+		this.entries = List.copyOf(source);
+		this.recipes = entries.stream().map(RecipeEntry::value).toList();
+
+		for (int i = 0; i < recipes.size(); i++) {
+			T recipe = recipes.get(i);
+			recipeOrder.put(recipe, i);
+
+			if (recipe.ingredients().isEmpty() || recipe.ingredients().stream().anyMatch(ingredient -> ingredient.ingredient().requiresTesting())) {
+				unindexedRecipes.add(recipe);
+				continue;
+			}
+
+			for (SizedIngredient ingredient : recipe.ingredients()) {
+				// Tag entries are resolved here, tags are reloaded together with the recipes.
+				for (ItemStack stack : ingredient.ingredient().getMatchingStacks()) {
+					List<T> list = recipesByItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+					// Recipes are added in order, so a duplicate can only be the last element.
+					if (list.isEmpty() || list.get(list.size() - 1) != recipe) {
+						list.add(recipe);
+					}
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T extends RebornRecipe> RecipeIndex<T> get(World world, RecipeType<T> type) {
+		ReloadingRecipeCache<RebornRecipeInput, T, RecipeIndex<T>> cache = (ReloadingRecipeCache<RebornRecipeInput, T, RecipeIndex<T>>) CACHES.computeIfAbsent(type, key -> new ReloadingRecipeCache<RebornRecipeInput, T, RecipeIndex<T>>(type, RecipeIndex::new));
+		return cache.get(world);
+	}
+
+	/**
+	 * @return All recipes of the type, in recipe manager order
+	 */
+	public List<T> getRecipes() {
+		return recipes;
+	}
+
+	public List<RecipeEntry<T>> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Get the recipes that might match the given inventory slots.
+	 * Every recipe that has an ingredient accepting one of the stacks is returned, so the caller must still test them.
+	 *
+	 * @param inventory The inventory containing the inputs
+	 * @param slots The input slots to look at
+	 * @return The candidate recipes, in recipe manager order
+	 */
+	public List<T> getCandidates(Inventory inventory, int[] slots) {
+		List<T> single = unindexedRecipes.isEmpty() ? null : unindexedRecipes;
+		List<List<T>> lists = null;
+
+		for (int slot : slots) {
+			ItemStack stack = inventory.getStack(slot);
+			if (stack.isEmpty()) continue;
+
+			List<T> list = recipesByItem.get(stack.getItem());
+			if (list == null || list == single || (lists != null && lists.contains(list))) continue;
+
+			if (single == null) {
+				single = list;
+			} else {
+				if (lists == null) {
+					lists = new ArrayList<>();
+					lists.add(single);
+				}
+				lists.add(list);
+			}
+		}
+
+		if (lists == null) {
+			return single == null ? List.of() : single;
+		}
+
+		// Merge the candidate lists, keeping the recipe manager order.
+		BitSet candidates = new BitSet(recipes.size());
+		for (List<T> list : lists) {
+			for (T recipe : list) {
+				candidates.set(recipeOrder.getInt(recipe));
+			}
+		}
+
+		List<T> result = new ArrayList<>(candidates.cardinality());
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			result.add(recipes.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * @param stack The stack to test
+	 * @return If any ingredient of any recipe accepts the stack
+	 */
+	public boolean isValidInput(ItemStack stack) {
+		if (stack.isEmpty()) {
+			return false;
+		}
+
+		List<T> list = recipesByItem.get(stack.getItem());
+		if (list != null && anyIngredientMatches(list, stack)) {
+			return true;
+		}
+		return anyIngredientMatches(unindexedRecipes, stack);
+	}
+
+	private static boolean anyIngredientMatches(List<? extends RebornRecipe> recipes, ItemStack stack) {
+		for (RebornRecipe recipe : recipes) {
+			for (SizedIngredient ingredient : recipe.ingredients()) {
+				if (ingredient.test(stack)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
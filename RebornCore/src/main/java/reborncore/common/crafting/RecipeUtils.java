@@ -36,19 +36,14 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Stream;
 
 public class RecipeUtils {
 	public static <T extends RebornRecipe> List<T> getRecipes(World world, RecipeType<T> type) {
-		return streamRecipeEntries(world, type).map(RecipeEntry::value).toList();
+		return RecipeIndex.get(world, type).getRecipes();
 	}
 
 	public static <T extends RebornRecipe> List<RecipeEntry<T>> getRecipeEntries(World world, RecipeType<T> type) {
-		return streamRecipeEntries(world, type).toList();
-	}
-
-	private static <T extends RebornRecipe> Stream<RecipeEntry<T>> streamRecipeEntries(World world, RecipeType<T> type) {
-		return world.getRecipeManager().getAllOfType(type).stream();
+		return RecipeIndex.get(world, type).getEntries();
 	}
 
 	/**
@@ -0,0 +1,79 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.crafting;
+
+import net.minecraft.recipe.Recipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.input.RecipeInput;
+import net.minecraft.world.World;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Holds a value built from all recipes of a {@link RecipeType}, once per side.
+ * <p>
+ * The value is built lazily and rebuilt whenever the recipe manager replaces the recipes of the type,
+ * which happens on every datapack reload and recipe sync.
+ *
+ * @param <I> The recipe input
+ * @param <R> The recipe type
+ * @param <T> The type of the cached value
+ */
+public final class ReloadingRecipeCache<I extends RecipeInput, R extends Recipe<I>, T> {
+	private final RecipeType<R> type;
+	private final Function<Collection<RecipeEntry<R>>, T> factory;
+	// One value per side, each is only accessed from its own thread.
+	private final Side server = new Side();
+	private final Side client = new Side();
+
+	/**
+	 * @param type The recipe type
+	 * @param factory Builds the value from the recipes of the type, in recipe manager order
+	 */
+	public ReloadingRecipeCache(RecipeType<R> type, Function<Collection<RecipeEntry<R>>, T> factory) {
+		this.type = type;
+		this.factory = factory;
+	}
+
+	public T get(World world) {
+		Collection<RecipeEntry<R>> source = world.getRecipeManager().getAllOfType(type);
+		Side side = world.isClient ? client : server;
+
+		// The recipe manager replaces its collections when reloading, so an identity check is enough to detect a reload.
+		if (side.source != source) {
+			side.value = factory.apply(source);
+			side.source = source;
+		}
+
+		return side.value;
+	}
+
+	private final class Side {
+		private Collection<RecipeEntry<R>> source = null;
+		private T value = null;
+	}
+}
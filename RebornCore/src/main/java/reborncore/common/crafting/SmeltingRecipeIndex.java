@@ -0,0 +1,151 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.crafting;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.SmeltingRecipe;
+import net.minecraft.recipe.input.SingleStackRecipeInput;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the vanilla smelting recipes keyed by the item they accept, shared by all furnace-style machines.
+ * <p>
+ * Like {@link RecipeIndex}, it is built lazily and rebuilt on reload through a {@link ReloadingRecipeCache}.
+ * Most ingredients only look at the item, so the recipe of an item is resolved once. Recipes with custom ingredients
+ * can depend on the components of the stack, they are tested against the stack when they come before the recipe of
+ * the item.
+ */
+public final class SmeltingRecipeIndex {
+	private static final ReloadingRecipeCache<SingleStackRecipeInput, SmeltingRecipe, SmeltingRecipeIndex> CACHE = new ReloadingRecipeCache<>(RecipeType.SMELTING, SmeltingRecipeIndex::new);
+
+	/**
+	 * The recipes accepting an item by its item alone, in recipe manager order.
+	 */
+	private final Map<Item, List<RecipeEntry<SmeltingRecipe>>> recipesByItem = new Reference2ObjectOpenHashMap<>();
+	/**
+	 * Recipes with ingredients that require testing the stack, with their position in the recipe manager order.
+	 */
+	private final List<RecipeEntry<SmeltingRecipe>> testedRecipes = new ArrayList<>();
+	private final IntList testedRecipeOrder = new IntArrayList();
+	private final Reference2IntMap<SmeltingRecipe> recipeOrder = new Reference2IntOpenHashMap<>();
+
+	private SmeltingRecipeIndex(Collection<RecipeEntry<SmeltingRecipe>> source) {
+		int order = 0;
+		for (RecipeEntry<SmeltingRecipe> entry : source) {
+			recipeOrder.put(entry.value(), order);
+			Ingredient ingredient = entry.value().getIngredients().get(0);
+
+			if (ingredient.requiresTesting()) {
+				testedRecipes.add(entry);
+				testedRecipeOrder.add(order);
+			} else {
+				for (ItemStack stack : ingredient.getMatchingStacks()) {
+					List<RecipeEntry<SmeltingRecipe>> list = recipesByItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+					// A tag can list an item more than once, it can only be the last recipe added
+					if (list.isEmpty() || list.get(list.size() - 1) != entry) {
+						list.add(entry);
+					}
+				}
+			}
+			order++;
+		}
+	}
+
+	public static SmeltingRecipeIndex get(World world) {
+		return CACHE.get(world);
+	}
+
+	/**
+	 * The same result as {@link net.minecraft.recipe.RecipeManager#getFirstMatch} for {@link RecipeType#SMELTING}.
+	 *
+	 * @param world The world, passed on to recipes that have to be tested
+	 * @param stack The stack to smelt
+	 * @return The first smelting recipe accepting the stack, or null
+	 */
+	@Nullable
+	public RecipeEntry<SmeltingRecipe> getFirstMatch(World world, ItemStack stack) {
+		if (stack.isEmpty()) {
+			return null;
+		}
+
+		List<RecipeEntry<SmeltingRecipe>> list = recipesByItem.get(stack.getItem());
+		RecipeEntry<SmeltingRecipe> itemMatch = list == null ? null : list.get(0);
+		int itemMatchOrder = itemMatch == null ? Integer.MAX_VALUE : recipeOrder.getInt(itemMatch.value());
+
+		// Only the tested recipes before the item match can take precedence, this is usually none of them
+		for (int i = 0; i < testedRecipes.size() && testedRecipeOrder.getInt(i) < itemMatchOrder; i++) {
+			RecipeEntry<SmeltingRecipe> entry = testedRecipes.get(i);
+			if (entry.value().matches(new SingleStackRecipeInput(stack), world)) {
+				return entry;
+			}
+		}
+
+		return itemMatch;
+	}
+
+	/**
+	 * A faster {@link SmeltingRecipe#matches}, for checking if a recipe still accepts the stack.
+	 *
+	 * @param world  The world, passed on to recipes that have to be tested
+	 * @param recipe The recipe to check
+	 * @param stack  The stack to smelt
+	 * @return If the recipe accepts the stack
+	 */
+	public boolean matches(World world, SmeltingRecipe recipe, ItemStack stack) {
+		if (stack.isEmpty()) {
+			return false;
+		}
+
+		List<RecipeEntry<SmeltingRecipe>> list = recipesByItem.get(stack.getItem());
+		if (list != null) {
+			for (RecipeEntry<SmeltingRecipe> entry : list) {
+				if (entry.value() == recipe) {
+					return true;
+				}
+			}
+		}
+
+		// Recipes from before a reload, and recipes with tested ingredients
+		if (!recipeOrder.containsKey(recipe) || recipe.getIngredients().get(0).requiresTesting()) {
+			return recipe.matches(new SingleStackRecipeInput(stack), world);
+		}
+		return false;
+	}
+}
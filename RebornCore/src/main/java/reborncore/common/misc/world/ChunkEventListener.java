@@ -27,6 +27,11 @@ package reborncore.common.misc.world;
 import net.minecraft.util.math.BlockPos;
 
 public interface ChunkEventListener {
+	/**
+	 * Called when the block at one of the positions the listener was registered for changes.
+	 *
+	 * @param pos {@link BlockPos} The position of the changed block
+	 */
 	void onBlockUpdate(BlockPos pos);
 
 	void onUnloadChunk();
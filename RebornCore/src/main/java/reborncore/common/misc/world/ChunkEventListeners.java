@@ -24,56 +24,199 @@
 
 package reborncore.common.misc.world;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Dispatches chunk events to the listeners registered for a set of block positions.
+ * <p>
+ * Listeners are indexed per chunk and per chunk section, so a block change outside every registered
+ * footprint only costs a map lookup and an array check.
+ */
 public class ChunkEventListeners {
-	public static ChunkPosMultiMap<ChunkEventListener> listeners = new ChunkPosMultiMap<>();
+	private static final Map<World, Long2ObjectMap<ChunkListeners>> listeners = new Reference2ObjectOpenHashMap<>();
+	private static final Map<ChunkEventListener, Registration> registrations = new Reference2ObjectOpenHashMap<>();
 
 	public static void init() {
 		ServerLifecycleEvents.SERVER_STOPPED.register(minecraftServer -> serverStopCleanup());
 
 		ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
-			if (!world.isClient()) {
-				Set<ChunkEventListener> cels = listeners.get(world, chunk.getPos());
-				if (cels != null) {
-					for (ChunkEventListener cel : cels) {
-						cel.onLoadChunk();
-					}
+			ChunkListeners chunkListeners = getChunkListeners(world, chunk.getPos().toLong());
+			if (chunkListeners != null) {
+				for (Registration registration : List.copyOf(chunkListeners.registrations)) {
+					registration.listener.onLoadChunk();
 				}
 			}
 		});
 		ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
-			if (!world.isClient()) {
-				Set<ChunkEventListener> cels = listeners.get(world, chunk.getPos());
-				if (cels != null) {
-					for (ChunkEventListener cel : cels) {
-						cel.onUnloadChunk();
-					}
+			ChunkListeners chunkListeners = getChunkListeners(world, chunk.getPos().toLong());
+			if (chunkListeners != null) {
+				for (Registration registration : List.copyOf(chunkListeners.registrations)) {
+					registration.listener.onUnloadChunk();
 				}
 			}
 		});
 	}
 
+	/**
+	 * Register a listener for block changes at the given positions, replacing any previous registration.
+	 *
+	 * @param world     {@link World} The world containing the positions
+	 * @param listener  {@link ChunkEventListener} The listener to notify
+	 * @param positions {@link Collection} The block positions the listener is interested in
+	 */
+	public static void register(World world, ChunkEventListener listener, Collection<BlockPos> positions) {
+		unregister(listener);
+
+		Registration registration = new Registration(world, listener);
+		Long2ObjectMap<ChunkListeners> worldListeners = listeners.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>());
+
+		for (BlockPos pos : positions) {
+			int sectionIndex = world.getSectionIndex(pos.getY());
+			if (sectionIndex < 0 || sectionIndex >= world.countVerticalSections()) {
+				continue;
+			}
+			registration.positions.add(pos.asLong());
+
+			long chunkPos = ChunkPos.toLong(pos);
+			ChunkListeners chunkListeners = worldListeners.get(chunkPos);
+			if (chunkListeners == null) {
+				chunkListeners = new ChunkListeners(world.countVerticalSections());
+				worldListeners.put(chunkPos, chunkListeners);
+			}
+			if (registration.chunks.add(chunkPos)) {
+				chunkListeners.registrations.add(registration);
+			}
+			chunkListeners.addToSection(sectionIndex, registration);
+		}
+
+		registrations.put(listener, registration);
+	}
+
+	public static void unregister(ChunkEventListener listener) {
+		Registration registration = registrations.remove(listener);
+		if (registration == null) {
+			return;
+		}
+
+		Long2ObjectMap<ChunkListeners> worldListeners = listeners.get(registration.world);
+		if (worldListeners == null) {
+			return;
+		}
+
+		for (long chunkPos : registration.chunks) {
+			ChunkListeners chunkListeners = worldListeners.get(chunkPos);
+			if (chunkListeners != null && chunkListeners.remove(registration)) {
+				worldListeners.remove(chunkPos);
+			}
+		}
+
+		if (worldListeners.isEmpty()) {
+			listeners.remove(registration.world);
+		}
+	}
+
 	public static void onBlockStateChange(World world, ChunkPos chunkPos, BlockPos pos) {
-		if (!world.isClient()) {
-			Set<ChunkEventListener> cels = listeners.get(world, chunkPos);
-			if (cels != null) {
-				for (ChunkEventListener cel : cels) {
-					cel.onBlockUpdate(pos);
-				}
+		if (world.isClient()) {
+			return;
+		}
+
+		ChunkListeners chunkListeners = getChunkListeners(world, chunkPos.toLong());
+		if (chunkListeners == null) {
+			return;
+		}
+
+		int sectionIndex = world.getSectionIndex(pos.getY());
+		if (sectionIndex < 0 || sectionIndex >= chunkListeners.sections.length) {
+			return;
+		}
+		List<Registration> sectionListeners = chunkListeners.sections[sectionIndex];
+		if (sectionListeners == null) {
+			return;
+		}
+
+		long posLong = pos.asLong();
+		for (int i = 0; i < sectionListeners.size(); i++) {
+			Registration registration = sectionListeners.get(i);
+			if (registration.positions.contains(posLong)) {
+				registration.listener.onBlockUpdate(pos);
 			}
 		}
 	}
 
+	@Nullable
+	private static ChunkListeners getChunkListeners(World world, long chunkPos) {
+		if (world.isClient()) {
+			return null;
+		}
+		Long2ObjectMap<ChunkListeners> worldListeners = listeners.get(world);
+		return worldListeners == null ? null : worldListeners.get(chunkPos);
+	}
+
 	private static void serverStopCleanup() {
-		if (listeners.size() != 0) {
-			listeners = new ChunkPosMultiMap<>();
+		listeners.clear();
+		registrations.clear();
+	}
+
+	private static final class Registration {
+		private final World world;
+		private final ChunkEventListener listener;
+		private final LongSet positions = new LongOpenHashSet();
+		private final LongSet chunks = new LongOpenHashSet();
+
+		private Registration(World world, ChunkEventListener listener) {
+			this.world = world;
+			this.listener = listener;
+		}
+	}
+
+	private static final class ChunkListeners {
+		private final List<Registration> registrations = new ArrayList<>();
+		// Indexed by section, null when no listener has a position in the section
+		private final List<Registration>[] sections;
+
+		@SuppressWarnings("unchecked")
+		private ChunkListeners(int sectionCount) {
+			this.sections = new List[sectionCount];
+		}
+
+		private void addToSection(int sectionIndex, Registration registration) {
+			List<Registration> sectionListeners = sections[sectionIndex];
+			if (sectionListeners == null) {
+				sectionListeners = new ArrayList<>(1);
+				sections[sectionIndex] = sectionListeners;
+			}
+			if (!sectionListeners.contains(registration)) {
+				sectionListeners.add(registration);
+			}
+		}
+
+		/**
+		 * @return {@code boolean} If no listeners are left in the chunk
+		 */
+		private boolean remove(Registration registration) {
+			registrations.remove(registration);
+			for (int i = 0; i < sections.length; i++) {
+				List<Registration> sectionListeners = sections[i];
+				if (sectionListeners != null && sectionListeners.remove(registration) && sectionListeners.isEmpty()) {
+					sections[i] = null;
+				}
+			}
+			return registrations.isEmpty();
 		}
 	}
 }
@@ -33,13 +33,30 @@ import reborncore.common.chunkloading.ChunkLoaderManager;
 
 import java.util.List;
 
-public record ChunkSyncPayload(List<ChunkLoaderManager.LoadedChunk> chunks) implements CustomPayload {
+/**
+ * Syncs the loaded chunks shown by the client.
+ *
+ * @param replace If the chunks replace the ones shown, otherwise they are changes to the chunks of a single chunk loader
+ * @param added   The chunks to show
+ * @param removed The chunks to no longer show, always empty when replacing
+ */
+public record ChunkSyncPayload(boolean replace, List<ChunkLoaderManager.LoadedChunk> added, List<ChunkLoaderManager.LoadedChunk> removed) implements CustomPayload {
 	public static final Id<ChunkSyncPayload> ID = new Id<>(Identifier.of("reborncore:sync_chunks"));
 	public static final PacketCodec<RegistryByteBuf, ChunkSyncPayload> PACKET_CODEC = PacketCodec.tuple(
-		ChunkLoaderManager.LoadedChunk.PACKET_CODEC.collect(PacketCodecs.toList()), ChunkSyncPayload::chunks,
+		PacketCodecs.BOOL, ChunkSyncPayload::replace,
+		ChunkLoaderManager.LoadedChunk.PACKET_CODEC.collect(PacketCodecs.toList()), ChunkSyncPayload::added,
+		ChunkLoaderManager.LoadedChunk.PACKET_CODEC.collect(PacketCodecs.toList()), ChunkSyncPayload::removed,
 		ChunkSyncPayload::new
 	);
 
+	public static ChunkSyncPayload replace(List<ChunkLoaderManager.LoadedChunk> chunks) {
+		return new ChunkSyncPayload(true, chunks, List.of());
+	}
+
+	public static ChunkSyncPayload changes(List<ChunkLoaderManager.LoadedChunk> added, List<ChunkLoaderManager.LoadedChunk> removed) {
+		return new ChunkSyncPayload(false, added, removed);
+	}
+
 	@Override
 	public Id<? extends CustomPayload> getId() {
 		return ID;
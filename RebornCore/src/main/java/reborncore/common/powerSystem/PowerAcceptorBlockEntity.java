@@ -24,14 +24,17 @@
 
 package reborncore.common.powerSystem;
 
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.context.ContainerItemContext;
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
@@ -69,7 +72,29 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 			}
 			return 0;
 		}
+
+		@Override
+		protected void onFinalCommit() {
+			super.onFinalCommit();
+			wakeUp();
+		}
 	};
+	/**
+	 * Side storages exposed through {@link EnergyStorage#SIDED}, the last one being the {@code null} side.
+	 */
+	private final SideEnergyStorage[] sideStorages = new SideEnergyStorage[7];
+	/**
+	 * Adjacent caches, used to quickly query the energy storages next to this machine.
+	 */
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<EnergyStorage, Direction>[] adjacentCaches = new BlockApiCache[6];
+	/**
+	 * Bitmask of the sides that have an energy storage to push into.
+	 * It is rebuilt on neighbour updates, and periodically to catch storages that appear without a block update.
+	 */
+	private int energyTargetSides = 0;
+	private int energyTargetRefreshTicks = 0;
+	private static final int ENERGY_TARGET_REFRESH_INTERVAL = 20;
 	private RcEnergyTier blockEntityPowerTier;
 
 	public long extraPowerStorage;
@@ -85,7 +110,11 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 	}
 
 	public EnergyStorage getSideEnergyStorage(@Nullable Direction side) {
-		return energyContainer.getSideStorage(side);
+		int index = side == null ? 6 : side.getId();
+		if (sideStorages[index] == null) {
+			sideStorages[index] = new SideEnergyStorage(side);
+		}
+		return sideStorages[index];
 	}
 
 	public void checkTier() {
@@ -248,10 +277,21 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 	 *
 	 * @return {@code long} Size of additional energy buffer
 	 */
+	@Override
 	public long getExtraPowerStorage(){
 		return extraPowerStorage;
 	}
 
+	@Override
+	public long getExtraPowerInput() {
+		return extraPowerInput;
+	}
+
+	@Override
+	public int getExtraTier() {
+		return extraTier;
+	}
+
 	/**
 	 * Wrapper method used to sync additional energy storage values with client via
 	 * {@link BlockEntityScreenHandlerBuilder}
@@ -337,10 +377,25 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 			return;
 		}
 
+		if (--energyTargetRefreshTicks <= 0) {
+			updateEnergyTargets();
+		}
+
 		for (Direction side : Direction.values()) {
+			int sideBit = 1 << side.getId();
+			if ((energyTargetSides & sideBit) == 0) {
+				continue;
+			}
+
+			EnergyStorage target = getAdjacentCache(side).find(side.getOpposite());
+			if (target == null) {
+				energyTargetSides &= ~sideBit;
+				continue;
+			}
+
 			EnergyStorageUtil.move(
 					getSideEnergyStorage(side),
-					EnergyStorage.SIDED.find(world, pos.offset(side), side.getOpposite()),
+					target,
 					Long.MAX_VALUE,
 					null
 			);
@@ -350,6 +405,30 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 		powerLastTick = getStored();
 	}
 
+	private BlockApiCache<EnergyStorage, Direction> getAdjacentCache(Direction direction) {
+		if (adjacentCaches[direction.getId()] == null) {
+			adjacentCaches[direction.getId()] = BlockApiCache.create(EnergyStorage.SIDED, (ServerWorld) world, pos.offset(direction));
+		}
+		return adjacentCaches[direction.getId()];
+	}
+
+	private void updateEnergyTargets() {
+		energyTargetSides = 0;
+		for (Direction side : Direction.values()) {
+			if (getAdjacentCache(side).find(side.getOpposite()) != null) {
+				energyTargetSides |= 1 << side.getId();
+			}
+		}
+		energyTargetRefreshTicks = ENERGY_TARGET_REFRESH_INTERVAL;
+	}
+
+	@Override
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		super.onNeighborUpdate(neighborPos);
+		// Re-query the targets on the next tick.
+		energyTargetRefreshTicks = 0;
+	}
+
 	@Override
 	public void readNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		super.readNbt(tag, registryLookup);
@@ -513,4 +592,58 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 
 		super.addInfo(info, isReal, hasData);
 	}
+
+	/**
+	 * Side storage of the energy container, reporting the same limits as its transfers use.
+	 */
+	private class SideEnergyStorage implements PredictableEnergyStorage {
+		@Nullable
+		private final Direction side;
+		private final EnergyStorage delegate;
+
+		private SideEnergyStorage(@Nullable Direction side) {
+			this.side = side;
+			this.delegate = energyContainer.getSideStorage(side);
+		}
+
+		@Override
+		public boolean supportsInsertion() {
+			return delegate.supportsInsertion();
+		}
+
+		@Override
+		public long insert(long maxAmount, TransactionContext transaction) {
+			return delegate.insert(maxAmount, transaction);
+		}
+
+		@Override
+		public boolean supportsExtraction() {
+			return delegate.supportsExtraction();
+		}
+
+		@Override
+		public long extract(long maxAmount, TransactionContext transaction) {
+			return delegate.extract(maxAmount, transaction);
+		}
+
+		@Override
+		public long getAmount() {
+			return delegate.getAmount();
+		}
+
+		@Override
+		public long getCapacity() {
+			return delegate.getCapacity();
+		}
+
+		@Override
+		public long getInsertLimit() {
+			return Math.max(0, Math.min(energyContainer.getMaxInsert(side), energyContainer.getCapacity() - energyContainer.amount));
+		}
+
+		@Override
+		public long getExtractLimit() {
+			return Math.max(0, Math.min(energyContainer.getMaxExtract(side), energyContainer.amount));
+		}
+	}
 }
@@ -0,0 +1,43 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.powerSystem;
+
+import team.reborn.energy.api.EnergyStorage;
+
+/**
+ * An {@link EnergyStorage} that can tell how much energy it would accept or provide without simulating a transfer.
+ * Energy networks use the limits to split energy between their targets, and simulate storages that don't implement this.
+ */
+public interface PredictableEnergyStorage extends EnergyStorage {
+	/**
+	 * @return {@code long} The amount that an insertion of {@link Long#MAX_VALUE} would accept right now
+	 */
+	long getInsertLimit();
+
+	/**
+	 * @return {@code long} The amount that an extraction of {@link Long#MAX_VALUE} would provide right now
+	 */
+	long getExtractLimit();
+}
@@ -0,0 +1,277 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.profiler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.block.entity.BlockEntityType;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.GlobalPos;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the time spent in the tick of each block entity type.
+ * <p>
+ * The instrumented code calls {@link #start()} and {@link #stop(Section, BlockEntity, long)} around a section. While
+ * the profiler is disabled this is a single static field read. While it is enabled, each sample is written to a ring
+ * buffer, which is folded into per-type histograms whenever it is full and when a report is made.
+ * <p>
+ * Samples are only taken on the thread that enabled the profiler, which is the server thread as it is controlled by
+ * a server command. {@link #start()} returns {@code 0} on any other thread, so client side ticks are never recorded.
+ */
+public final class TickProfiler {
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+	private static final int RING_SIZE = 1 << 16;
+	// Bucket i holds the samples that took less than 2^i nanoseconds
+	private static final int HISTOGRAM_BUCKETS = 40;
+	public static final int WORST_POSITIONS = 10;
+
+	public enum Section {
+		MACHINE_TICK,
+		CABLE_NETWORK,
+		RECIPE_CRAFTER,
+		SLOT_CONFIGURATION
+	}
+
+	private static final Section[] SECTIONS = Section.values();
+
+	private static boolean enabled = false;
+	private static Thread profiledThread = null;
+	private static long startedAt = 0;
+	private static long profiledNanos = 0;
+
+	// Allocated when the profiler is first started
+	private static BlockEntity[] ringEntities = null;
+	private static byte[] ringSections = null;
+	private static long[] ringNanos = null;
+	private static int ringIndex = 0;
+
+	private static final Map<Section, Map<BlockEntityType<?>, Stats>> stats = new EnumMap<>(Section.class);
+	private static final Object2LongOpenHashMap<GlobalPos> positionNanos = new Object2LongOpenHashMap<>();
+
+	private TickProfiler() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return {@code long} The start time of a section, or {@code 0} if the profiler is disabled or this is not the
+	 * profiled thread
+	 */
+	public static long start() {
+		return enabled && Thread.currentThread() == profiledThread ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records a section that started at the time returned by {@link #start()}.
+	 *
+	 * @param section     {@link Section} The instrumented section
+	 * @param blockEntity {@link BlockEntity} The block entity the time is attributed to
+	 * @param start       {@code long} The value returned by {@link #start()}
+	 */
+	public static void stop(Section section, BlockEntity blockEntity, long start) {
+		if (start == 0 || !enabled) {
+			return;
+		}
+
+		long nanos = System.nanoTime() - start;
+		ringEntities[ringIndex] = blockEntity;
+		ringSections[ringIndex] = (byte) section.ordinal();
+		ringNanos[ringIndex] = nanos;
+		if (++ringIndex == RING_SIZE) {
+			drain();
+		}
+	}
+
+	/**
+	 * Clears the collected data and starts profiling.
+	 */
+	public static void enable() {
+		if (ringEntities == null) {
+			ringEntities = new BlockEntity[RING_SIZE];
+			ringSections = new byte[RING_SIZE];
+			ringNanos = new long[RING_SIZE];
+		}
+		reset();
+		startedAt = System.nanoTime();
+		profiledThread = Thread.currentThread();
+		enabled = true;
+	}
+
+	/**
+	 * Stops profiling, the collected data is kept until the next {@link #enable()}.
+	 */
+	public static void disable() {
+		if (enabled) {
+			enabled = false;
+			profiledNanos += System.nanoTime() - startedAt;
+			drain();
+		}
+	}
+
+	private static void reset() {
+		stats.clear();
+		positionNanos.clear();
+		profiledNanos = 0;
+		ringIndex = 0;
+	}
+
+	/**
+	 * Folds the ring buffer into the statistics.
+	 */
+	private static void drain() {
+		for (int i = 0; i < ringIndex; i++) {
+			BlockEntity blockEntity = ringEntities[i];
+			long nanos = ringNanos[i];
+			Section section = SECTIONS[ringSections[i]];
+			ringEntities[i] = null;
+
+			stats.computeIfAbsent(section, key -> new Reference2ObjectOpenHashMap<>())
+				.computeIfAbsent(blockEntity.getType(), type -> new Stats())
+				.add(nanos);
+
+			// Recipe crafter and slot configuration run inside the machine tick, only the outermost sections are
+			// added to the position totals so that no time is counted twice
+			if ((section == Section.MACHINE_TICK || section == Section.CABLE_NETWORK) && blockEntity.getWorld() != null) {
+				positionNanos.addTo(GlobalPos.create(blockEntity.getWorld().getRegistryKey(), blockEntity.getPos()), nanos);
+			}
+		}
+		ringIndex = 0;
+	}
+
+	/**
+	 * @return {@link List} The positions with the most time spent, worst first
+	 */
+	public static List<Object2LongMap.Entry<GlobalPos>> getWorstPositions() {
+		drain();
+		List<Object2LongMap.Entry<GlobalPos>> positions = new ArrayList<>(positionNanos.object2LongEntrySet());
+		positions.sort(Comparator.comparingLong(Object2LongMap.Entry<GlobalPos>::getLongValue).reversed());
+		return positions.subList(0, Math.min(WORST_POSITIONS, positions.size()));
+	}
+
+	/**
+	 * Writes a JSON report of the collected data to the {@code reborncore/profiles} directory of the game directory.
+	 *
+	 * @return {@link Path} The written file
+	 */
+	public static Path writeReport() throws IOException {
+		drain();
+
+		long duration = profiledNanos + (enabled ? System.nanoTime() - startedAt : 0);
+		JsonObject report = new JsonObject();
+		report.addProperty("durationNanos", duration);
+
+		JsonArray types = new JsonArray();
+		for (Map.Entry<Section, Map<BlockEntityType<?>, Stats>> sectionEntry : stats.entrySet()) {
+			for (Map.Entry<BlockEntityType<?>, Stats> typeEntry : sectionEntry.getValue().entrySet()) {
+				Stats typeStats = typeEntry.getValue();
+				JsonObject type = new JsonObject();
+				type.addProperty("section", sectionEntry.getKey().name().toLowerCase());
+				type.addProperty("type", String.valueOf(Registries.BLOCK_ENTITY_TYPE.getId(typeEntry.getKey())));
+				type.addProperty("count", typeStats.count);
+				type.addProperty("totalNanos", typeStats.totalNanos);
+				type.addProperty("meanNanos", typeStats.totalNanos / typeStats.count);
+				type.addProperty("maxNanos", typeStats.maxNanos);
+				type.addProperty("p50Nanos", typeStats.percentile(0.5));
+				type.addProperty("p99Nanos", typeStats.percentile(0.99));
+
+				JsonArray histogram = new JsonArray();
+				for (long bucket : typeStats.histogram) {
+					histogram.add(bucket);
+				}
+				type.add("histogram", histogram);
+				types.add(type);
+			}
+		}
+		report.add("types", types);
+
+		JsonArray positions = new JsonArray();
+		for (Object2LongMap.Entry<GlobalPos> entry : getWorstPositions()) {
+			JsonObject position = new JsonObject();
+			position.addProperty("dimension", entry.getKey().dimension().getValue().toString());
+			position.addProperty("x", entry.getKey().pos().getX());
+			position.addProperty("y", entry.getKey().pos().getY());
+			position.addProperty("z", entry.getKey().pos().getZ());
+			position.addProperty("totalNanos", entry.getLongValue());
+			positions.add(position);
+		}
+		report.add("worstPositions", positions);
+
+		Path directory = FabricLoader.getInstance().getGameDir().resolve("reborncore").resolve("profiles");
+		Files.createDirectories(directory);
+		Path file = directory.resolve("profile-" + new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date()) + ".json");
+		Files.writeString(file, GSON.toJson(report), StandardCharsets.UTF_8);
+		return file;
+	}
+
+	private static final class Stats {
+		private final long[] histogram = new long[HISTOGRAM_BUCKETS];
+		private long count = 0;
+		private long totalNanos = 0;
+		private long maxNanos = 0;
+
+		private void add(long nanos) {
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+			histogram[Math.min(64 - Long.numberOfLeadingZeros(nanos), HISTOGRAM_BUCKETS - 1)]++;
+		}
+
+		/**
+		 * @return The upper bound of the histogram bucket containing the percentile
+		 */
+		private long percentile(double percentile) {
+			long target = (long) Math.ceil(count * percentile);
+			long seen = 0;
+			for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+				seen += histogram[i];
+				if (seen >= target) {
+					return Math.min(1L << i, maxNanos);
+				}
+			}
+			return maxNanos;
+		}
+	}
+}
@@ -49,4 +49,25 @@ public interface IUpgradeHandler {
 
 	boolean isMuffled();
 
+	/**
+	 * @return {@code long} Extra energy storage granted by the upgrades
+	 */
+	default long getExtraPowerStorage() {
+		return 0;
+	}
+
+	/**
+	 * @return {@code long} Extra energy input rate granted by the upgrades
+	 */
+	default long getExtraPowerInput() {
+		return 0;
+	}
+
+	/**
+	 * @return {@code int} Amount of tiers added by the upgrades
+	 */
+	default int getExtraTier() {
+		return 0;
+	}
+
 }
@@ -31,13 +31,14 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.recipe.RecipeType;
 import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.RebornCore;
 import reborncore.api.recipe.IRecipeCrafterProvider;
 import reborncore.common.blocks.BlockMachineBase;
 import reborncore.common.crafting.RebornRecipe;
 import reborncore.common.crafting.SizedIngredient;
-import reborncore.common.crafting.RecipeUtils;
+import reborncore.common.crafting.RecipeIndex;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RebornInventory;
@@ -101,6 +102,10 @@ public class RecipeCrafter implements IUpgradeHandler {
 	public int currentNeededTicks = 1;// Set to 1 to stop rare crashes
 
 	int ticksSinceLastChange;
+	/**
+	 * Set while the machine is dormant, the active state is restored on the first tick after waking up.
+	 */
+	private boolean sleeping = false;
 
 	@Nullable
 	public static ICrafterSoundHandler soundHandler = (firstRun, blockEntity) -> {
@@ -134,6 +139,10 @@ public class RecipeCrafter implements IUpgradeHandler {
 			return;
 		}
 		ticksSinceLastChange++;
+		if (sleeping) {
+			sleeping = false;
+			setIsActive();
+		}
 		if (cachedWorldTime == 0){
 			cachedWorldTime = blockEntity.getWorld().getTime();
 		}
@@ -207,7 +216,7 @@ public class RecipeCrafter implements IUpgradeHandler {
 	 */
 	public void updateCurrentRecipe() {
 		currentTickTime = 0;
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
+		for (RebornRecipe recipe : getCandidateRecipes()) {
 			// This checks to see if it has all the inputs
 			if (!hasAllInputs(recipe)) continue;
 			if (!recipe.canCraft(blockEntity)) continue;
@@ -328,7 +337,7 @@ public class RecipeCrafter implements IUpgradeHandler {
 	}
 
 	public boolean canCraftAgain() {
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
+		for (RebornRecipe recipe : getCandidateRecipes()) {
 			if (recipe.canCraft(blockEntity) && hasAllInputs(recipe)) {
 				final List<ItemStack> outputs = recipe.outputs();
 
@@ -363,6 +372,45 @@ public class RecipeCrafter implements IUpgradeHandler {
 		this.currentRecipe = recipe;
 	}
 
+	/**
+	 * @return {@code boolean} If the crafter cannot make progress until its inventory or energy changes
+	 */
+	public boolean isIdle() {
+		if (isInvDirty()) {
+			return false;
+		}
+		if (currentRecipe == null) {
+			return true;
+		}
+		if (currentTickTime < currentNeededTicks) {
+			// Waiting for energy
+			return energy != null && energy.getStored() < getEuPerTick(currentRecipe.power());
+		}
+		// Waiting for output space, extracting from an output slot changes the inventory
+		final List<ItemStack> outputs = currentRecipe.outputs();
+		for (int i = 0; i < outputs.size(); i++) {
+			if (!canFitOutput(outputs.get(i), outputSlots[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Called when the machine goes dormant, a sleeping machine makes no progress so it is not shown as active.
+	 */
+	public void onSleep() {
+		sleeping = true;
+		World world = blockEntity.getWorld();
+		if (world == null) return;
+		BlockPos pos = blockEntity.getPos();
+		BlockState oldState = world.getBlockState(pos);
+		if (oldState.getBlock() instanceof BlockMachineBase blockMachineBase && oldState.get(BlockMachineBase.ACTIVE)) {
+			blockMachineBase.setActive(false, world, pos);
+			world.updateListeners(pos, oldState, world.getBlockState(pos), 3);
+		}
+	}
+
 	public boolean isInvDirty() {
 		return inventory.hasChanged();
 	}
@@ -380,14 +428,14 @@ public class RecipeCrafter implements IUpgradeHandler {
 		// A bit of a hack but should work.
 		ItemStack largeStack = stack.copy();
 		largeStack.setCount(largeStack.getMaxCount());
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
-			for (SizedIngredient ingredient : recipe.ingredients()) {
-				if (ingredient.test(largeStack)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return RecipeIndex.get(blockEntity.getWorld(), recipeType).isValidInput(largeStack);
+	}
+
+	/**
+	 * @return The recipes that have an ingredient matching one of the current inputs
+	 */
+	protected List<? extends RebornRecipe> getCandidateRecipes() {
+		return RecipeIndex.get(blockEntity.getWorld(), recipeType).getCandidates(inventory, inputSlots);
 	}
 
 	@Override
@@ -441,6 +489,21 @@ public class RecipeCrafter implements IUpgradeHandler {
 		return parentUpgradeHandler.map(IUpgradeHandler::isMuffled).orElse(false);
 	}
 
+	@Override
+	public long getExtraPowerStorage() {
+		return parentUpgradeHandler.map(IUpgradeHandler::getExtraPowerStorage).orElse(0L);
+	}
+
+	@Override
+	public long getExtraPowerInput() {
+		return parentUpgradeHandler.map(IUpgradeHandler::getExtraPowerInput).orElse(0L);
+	}
+
+	@Override
+	public int getExtraTier() {
+		return parentUpgradeHandler.map(IUpgradeHandler::getExtraTier).orElse(0);
+	}
+
 	@Nullable
 	private DynamicRegistryManager getDynamicRegistryManager() {
 		return blockEntity.getWorld().getRegistryManager();
@@ -27,6 +27,8 @@ package reborncore.common.screen;
 import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.CraftingInventory;
@@ -48,9 +50,11 @@ import reborncore.common.screen.builder.SyncedObject;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RangeUtil;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -61,9 +65,10 @@ public class BuiltScreenHandler extends ScreenHandler {
 	private final List<Range<Integer>> playerSlotRanges;
 	private final List<Range<Integer>> blockEntitySlotRanges;
 
-	// Holds the SyncPair along with the last value
-	private final Map<IdentifiedSyncedObject<?>, Object> syncPairCache = new HashMap<>();
+	private final List<IdentifiedSyncedObject<?>> syncedObjects = new ArrayList<>();
 	private final Int2ObjectMap<IdentifiedSyncedObject<?>> syncPairIdLookup = new Int2ObjectOpenHashMap<>();
+	// The values last sent to each listener, so that every listener gets every change exactly once
+	private final Map<ScreenHandlerListener, ListenerSyncState> listenerSyncStates = new Reference2ObjectOpenHashMap<>();
 
 	private List<Consumer<CraftingInventory>> craftEvents;
 
@@ -85,10 +90,9 @@ public class BuiltScreenHandler extends ScreenHandler {
 
 	public void addObjectSync(final List<SyncedObject<?>> syncedObjects) {
 		for (final SyncedObject<?> syncedObject : syncedObjects) {
-			// Add a new sync pair to the cache with a null value
-			int id = syncPairCache.size() + 1;
-			var syncPair = new IdentifiedSyncedObject(syncedObject, id);
-			this.syncPairCache.put(syncPair, null);
+			int id = this.syncedObjects.size() + 1;
+			var syncPair = new IdentifiedSyncedObject<>(syncedObject, id);
+			this.syncedObjects.add(syncPair);
 			this.syncPairIdLookup.put(id, syncPair);
 		}
 	}
@@ -122,52 +126,83 @@ public class BuiltScreenHandler extends ScreenHandler {
 	public void addListener(final ScreenHandlerListener listener) {
 		super.addListener(listener);
 
+		listenerSyncStates.put(listener, new ListenerSyncState(syncedObjects.size()));
 		sendContentUpdatePacketToListener(listener);
 	}
 
+	@Override
+	public void removeListener(final ScreenHandlerListener listener) {
+		super.removeListener(listener);
+
+		listenerSyncStates.remove(listener);
+	}
+
 	private void sendContentUpdatePacketToListener(final ScreenHandlerListener listener) {
-		Map<IdentifiedSyncedObject<?>, Object> updatedValues = new HashMap<>();
+		final ListenerSyncState state = listenerSyncStates.get(listener);
+		if (state == null) {
+			return;
+		}
+
+		final long time = blockEntity.getWorld().getTime();
+		IntArrayList updatedIndices = null;
+
+		for (int i = 0; i < syncedObjects.size(); i++) {
+			final IdentifiedSyncedObject<?> identifiedSyncedObject = syncedObjects.get(i);
+			final boolean sent = state.values[i] != ListenerSyncState.UNSENT;
+
+			// Throttled values keep their last sent value until the interval has passed
+			if (sent && time - state.lastSentTime[i] < identifiedSyncedObject.object().interval()) {
+				continue;
+			}
 
-		this.syncPairCache.replaceAll((identifiedSyncedObject, cached) -> {
 			final Object value = identifiedSyncedObject.get();
+			if (sent && Objects.equals(value, state.values[i])) {
+				continue;
+			}
 
-			if (!value.equals(cached)) {
-				updatedValues.put(identifiedSyncedObject, value);
-				return value;
+			state.values[i] = value;
+			state.lastSentTime[i] = time;
+			if (updatedIndices == null) {
+				updatedIndices = new IntArrayList();
 			}
-			return null;
-		});
+			updatedIndices.add(i);
+		}
 
-		if (updatedValues.isEmpty()) {
+		if (updatedIndices == null) {
 			return;
 		}
 
-		byte[] data = writeScreenHandlerData(updatedValues);
+		byte[] data = writeScreenHandlerData(state, updatedIndices);
 		ServerPlayerEntityScreenHandlerHelper.getServerPlayerEntity(listener)
 			.ifPresent(serverPlayerEntity -> NetworkManager.sendToPlayer(new ScreenHandlerUpdatePayload(data), serverPlayerEntity));
 	}
 
 	@SuppressWarnings({"rawtypes", "unchecked"})
-	private byte[] writeScreenHandlerData(Map<IdentifiedSyncedObject<?>, Object> updatedValues) {
+	private byte[] writeScreenHandlerData(ListenerSyncState state, IntArrayList updatedIndices) {
 		RegistryByteBuf byteBuf = new RegistryByteBuf(PacketByteBufs.create(), blockEntity.getWorld().getRegistryManager());
 
-		byteBuf.writeInt(updatedValues.size());
-		for (Map.Entry<IdentifiedSyncedObject<?>, Object> entry : updatedValues.entrySet()) {
-			PacketCodec codec = entry.getKey().object().codec();
-			byteBuf.writeInt(entry.getKey().id());
-			codec.encode(byteBuf, entry.getValue());
+		byteBuf.writeVarInt(updatedIndices.size());
+		for (int i = 0; i < updatedIndices.size(); i++) {
+			int index = updatedIndices.getInt(i);
+			IdentifiedSyncedObject<?> identifiedSyncedObject = syncedObjects.get(index);
+			PacketCodec codec = identifiedSyncedObject.object().codec();
+			byteBuf.writeVarInt(identifiedSyncedObject.id());
+			codec.encode(byteBuf, state.values[index]);
 		}
 
-		return byteBuf.array();
+		// Only copy the written bytes, the backing array is larger than the frame
+		byte[] data = new byte[byteBuf.readableBytes()];
+		byteBuf.readBytes(data);
+		return data;
 	}
 
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	public void applyScreenHandlerData(byte[] data) {
 		RegistryByteBuf byteBuf = new RegistryByteBuf(new PacketByteBuf(Unpooled.wrappedBuffer(data)), blockEntity.getWorld().getRegistryManager());
-		int size = byteBuf.readInt();
+		int size = byteBuf.readVarInt();
 
 		for (int i = 0; i < size; i++) {
-			int id = byteBuf.readInt();
+			int id = byteBuf.readVarInt();
 			IdentifiedSyncedObject syncedObject = syncPairIdLookup.get(id);
 			Object value = syncedObject.object().codec().decode(byteBuf);
 			syncedObject.set(value);
@@ -322,6 +357,19 @@ public class BuiltScreenHandler extends ScreenHandler {
 		return type;
 	}
 
+	private static final class ListenerSyncState {
+		private static final Object UNSENT = new Object();
+
+		private final Object[] values;
+		private final long[] lastSentTime;
+
+		private ListenerSyncState(int size) {
+			this.values = new Object[size];
+			this.lastSentTime = new long[size];
+			Arrays.fill(values, UNSENT);
+		}
+	}
+
 	private record IdentifiedSyncedObject<T>(SyncedObject<T> object, int id) {
 		public T get() {
 			return object.getter().get();
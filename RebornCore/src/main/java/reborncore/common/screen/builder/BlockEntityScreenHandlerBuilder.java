@@ -55,6 +55,7 @@ import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 public class BlockEntityScreenHandlerBuilder {
+	private static final int ENERGY_SYNC_INTERVAL = 4;
 
 	private final Inventory inventory;
 	private final BlockEntity blockEntity;
@@ -148,6 +149,17 @@ public class BlockEntityScreenHandlerBuilder {
 		return this;
 	}
 
+	/**
+	 * Same as {@link #sync(PacketCodec, Supplier, Consumer)}, but the value is sent at most once every {@code interval} ticks.
+	 *
+	 * @param interval {@code int} The minimum number of ticks between two updates
+	 * @return {@link BlockEntityScreenHandlerBuilder} Inventory which will do the sync
+	 */
+	public <T> BlockEntityScreenHandlerBuilder sync(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> supplier, Consumer<T> setter, int interval) {
+		this.parent.objectValues.add(new SyncedObject<>(codec, supplier, setter, interval));
+		return this;
+	}
+
 	public BlockEntityScreenHandlerBuilder sync(Syncable syncable) {
 		syncable.configureSync(this::sync);
 		return this;
@@ -171,9 +183,10 @@ public class BlockEntityScreenHandlerBuilder {
 
 	public BlockEntityScreenHandlerBuilder syncEnergyValue() {
 		if (this.blockEntity instanceof PowerAcceptorBlockEntity powerAcceptor) {
-			return this.sync(PacketCodecs.VAR_LONG, powerAcceptor::getEnergy, powerAcceptor::setEnergy)
+			// Energy changes nearly every tick, a few updates per second are plenty for the GUI.
+			return this.sync(PacketCodecs.VAR_LONG, powerAcceptor::getEnergy, powerAcceptor::setEnergy, ENERGY_SYNC_INTERVAL)
 					.sync(PacketCodecs.VAR_LONG, powerAcceptor::getExtraPowerStorage, powerAcceptor::setExtraPowerStorage)
-					.sync(PacketCodecs.VAR_LONG, powerAcceptor::getPowerChange, powerAcceptor::setPowerChange);
+					.sync(PacketCodecs.VAR_LONG, powerAcceptor::getPowerChange, powerAcceptor::setPowerChange, ENERGY_SYNC_INTERVAL);
 		}
 
 		RebornCore.LOGGER.error(this.inventory + " is not an instance of TilePowerAcceptor! Energy cannot be synced.");
@@ -30,5 +30,11 @@ import net.minecraft.network.codec.PacketCodec;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-public record SyncedObject<T>(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> getter, Consumer<T> setter) {
+/**
+ * @param interval The minimum number of ticks between two updates of the value, used to throttle values that change every tick
+ */
+public record SyncedObject<T>(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> getter, Consumer<T> setter, int interval) {
+	public SyncedObject(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> getter, Consumer<T> setter) {
+		this(codec, getter, setter, 1);
+	}
 }
@@ -155,6 +155,7 @@ public class RebornInventory<T extends MachineBaseBlockEntity> extends Inventory
 	public void markDirty() {
 		super.markDirty();
 		blockEntity.markDirty();
+		blockEntity.wakeUp();
 	}
 
 }
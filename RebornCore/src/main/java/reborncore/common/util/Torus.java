@@ -24,86 +24,208 @@
 
 package reborncore.common.util;
 
-import com.google.common.collect.ImmutableList;
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+import reborncore.RebornCore;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
+/**
+ * The coil positions of a fusion reactor ring, relative to its center.
+ * <p>
+ * The positions of a radius are generated the first time they are needed and kept as packed {@link BlockPos} longs.
+ * Large rings can also be cached on disk, see {@link #enableDiskCache(Path)}.
+ */
 public class Torus {
-	private static final ExecutorService GEN_EXECUTOR = Executors.newSingleThreadExecutor();
-	private static Int2IntMap torusSizeCache;
-	private static Int2ObjectOpenHashMap<ImmutableList<BlockPos>> torusListCache;
+	private static final int DISK_CACHE_MAGIC = 0x54525553;
+	// Increase when the generated positions change, to invalidate the disk cache
+	private static final int DISK_CACHE_VERSION = 1;
+	/**
+	 * Smaller rings are generated faster than they are read from disk.
+	 */
+	private static final int DISK_CACHE_MIN_RADIUS = 64;
+
+	private static final Map<Integer, long[]> positionCache = new ConcurrentHashMap<>();
+	@Nullable
+	private static Path diskCacheDirectory = null;
+
 	public static List<BlockPos> generate(BlockPos origin, int radius) {
-		List<BlockPos> posLists = new ArrayList<>();
-		for (int x = -radius; x < radius; x++) {
-			for (int y = -radius; y < radius; y++) {
-				for (int z = -radius; z < radius; z++) {
-					if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
-						posLists.add(origin.add(x, z, y));
-					}
-				}
-			}
+		long[] positions = getPackedPositions(radius);
+		List<BlockPos> posLists = new ArrayList<>(positions.length);
+		for (long pos : positions) {
+			posLists.add(origin.add(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos)));
 		}
-
 		return posLists;
 	}
-	public static List<BlockPos> getOriginPositions(int radius){
-		return torusListCache.get(radius);
+
+	/**
+	 * @param radius {@code int} The radius of the ring
+	 * @return {@link List} The positions relative to the center, created when they are accessed
+	 */
+	public static List<BlockPos> getOriginPositions(int radius) {
+		long[] positions = getPackedPositions(radius);
+		return new AbstractList<>() {
+			@Override
+			public BlockPos get(int index) {
+				return BlockPos.fromLong(positions[index]);
+			}
+
+			@Override
+			public int size() {
+				return positions.length;
+			}
+		};
 	}
-	public static void genSizeMap(int maxRadius) {
-		if (torusSizeCache != null) {
-			// Let's not do this again
-			return;
-		}
-		// 10 is added as the control computer has a base of around 6 less
-		final int sizeToCompute = maxRadius + 10;
-
-		torusSizeCache = new Int2IntOpenHashMap(sizeToCompute);
-		torusListCache = new Int2ObjectOpenHashMap<>(sizeToCompute);
-		for (int i = 0; i < sizeToCompute; i++) {
-			final int radius = i;
-			GEN_EXECUTOR.submit(() -> {
-				int size = 0;
-				ArrayList<BlockPos> list = new ArrayList<>();
-				for (int x = -radius; x < radius; x++) {
-					for (int y = -radius; y < radius; y++) {
-						for (int z = -radius; z < radius; z++) {
-							if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
-								size++;
-								list.add(new BlockPos(x,z,y));
-							}
-						}
-					}
+
+	/**
+	 * @param radius {@code int} The radius of the ring
+	 * @return {@code long[]} The positions relative to the center, packed with {@link BlockPos#asLong()}. Do not modify.
+	 */
+	public static long[] getPackedPositions(int radius) {
+		return positionCache.computeIfAbsent(radius, Torus::loadOrCompute);
+	}
+
+	/**
+	 * @param radius {@code int} The radius of the ring
+	 * @return {@code int} The amount of coils the ring consists of
+	 */
+	public static int getCoilCount(int radius) {
+		return getPackedPositions(radius).length;
+	}
+
+	/**
+	 * Caches the positions of large rings in the given directory, so that they don't have to be generated again.
+	 */
+	public static void enableDiskCache(Path directory) {
+		diskCacheDirectory = directory;
+	}
+
+	private static long[] loadOrCompute(int radius) {
+		Path file = diskCacheDirectory != null && radius >= DISK_CACHE_MIN_RADIUS ? diskCacheDirectory.resolve("torus_" + radius + ".bin") : null;
+
+		if (file != null && Files.exists(file)) {
+			try {
+				long[] positions = readDiskCache(file, radius);
+				if (positions != null) {
+					return positions;
 				}
-				torusSizeCache.put(radius, size);
-				torusListCache.put(radius, ImmutableList.copyOf(list));
-			});
+			} catch (IOException e) {
+				RebornCore.LOGGER.warn("Failed to read the cached torus of radius {}", radius, e);
+			}
+		}
+
+		long[] positions = compute(radius);
+
+		if (file != null) {
+			try {
+				writeDiskCache(file, radius, positions);
+			} catch (IOException e) {
+				RebornCore.LOGGER.warn("Failed to cache the torus of radius {}", radius, e);
+			}
 		}
 
-		// Finish running the tasks, and then shutdown the ExecutorService. This call does not stall the main thread
-		GEN_EXECUTOR.shutdown();
+		return positions;
 	}
 
 	/**
-	 * @return {@link Int2IntMap}
-	 * @throws RuntimeException If failed to initialize the map
+	 * Generates the voxels within the tube around a ring with half the radius, the tube has a radius of 5% of the radius.
+	 * Only the voxels near the ring are tested, each x slice is generated on the fork join pool.
 	 */
-	public static Int2IntMap getTorusSizeCache() {
-		if (!GEN_EXECUTOR.isShutdown()) {
-			try {
-				GEN_EXECUTOR.awaitTermination(1, TimeUnit.SECONDS);
-			} catch (InterruptedException e) {
-				throw new RuntimeException("Reborn core failed to initialize the torus cache", e);
+	private static long[] compute(int radius) {
+		final int ringRadius = radius / 2;
+		final double tubeRadius = radius * 0.05;
+		final double tubeRadiusSq = Math.pow(tubeRadius, 2);
+		final int zBound = Math.min(radius, (int) Math.ceil(tubeRadius));
+		final double outerSq = Math.pow(ringRadius + tubeRadius, 2);
+		final double innerSq = ringRadius - tubeRadius > 0 ? Math.pow(ringRadius - tubeRadius, 2) : -1;
+
+		long[][] slices = IntStream.range(-radius, radius).parallel().mapToObj(x -> {
+			double xSq = Math.pow(x, 2);
+			if (xSq >= outerSq + 1) {
+				return new long[0];
+			}
+
+			// The y values within the tube, with a margin of one block to be safe from rounding
+			int yOuter = Math.min(radius, (int) Math.sqrt(Math.max(0, outerSq - xSq)) + 1);
+			int yInner = innerSq - xSq > 0 ? (int) Math.ceil(Math.sqrt(innerSq - xSq)) - 1 : -1;
+
+			LongArrayList slice = new LongArrayList();
+			if (yInner <= 0) {
+				addColumns(slice, radius, ringRadius, tubeRadiusSq, zBound, x, -yOuter, yOuter);
+			} else {
+				addColumns(slice, radius, ringRadius, tubeRadiusSq, zBound, x, -yOuter, -yInner);
+				addColumns(slice, radius, ringRadius, tubeRadiusSq, zBound, x, yInner, yOuter);
+			}
+			return slice.toLongArray();
+		}).toArray(long[][]::new);
+
+		int count = 0;
+		for (long[] slice : slices) {
+			count += slice.length;
+		}
+		long[] positions = new long[count];
+		int index = 0;
+		for (long[] slice : slices) {
+			System.arraycopy(slice, 0, positions, index, slice.length);
+			index += slice.length;
+		}
+		return positions;
+	}
+
+	private static void addColumns(LongArrayList slice, int radius, int ringRadius, double tubeRadiusSq, int zBound, int x, int yFrom, int yTo) {
+		for (int y = Math.max(yFrom, -radius); y <= Math.min(yTo, radius - 1); y++) {
+			for (int z = Math.max(-zBound, -radius); z <= Math.min(zBound, radius - 1); z++) {
+				// The same test the positions have always been generated with, so existing reactors stay valid
+				if (Math.pow(ringRadius - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < tubeRadiusSq) {
+					slice.add(BlockPos.asLong(x, z, y));
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private static long[] readDiskCache(Path file, int radius) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != DISK_CACHE_MAGIC || in.readInt() != DISK_CACHE_VERSION || in.readInt() != radius) {
+				return null;
+			}
+
+			long[] positions = new long[in.readInt()];
+			for (int i = 0; i < positions.length; i++) {
+				positions[i] = in.readLong();
+			}
+			return positions;
+		}
+	}
+
+	private static void writeDiskCache(Path file, int radius, long[] positions) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+			out.writeInt(DISK_CACHE_MAGIC);
+			out.writeInt(DISK_CACHE_VERSION);
+			out.writeInt(radius);
+			out.writeInt(positions.length);
+			for (long position : positions) {
+				out.writeLong(position);
 			}
 		}
 
-		return torusSizeCache;
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
 	}
 }
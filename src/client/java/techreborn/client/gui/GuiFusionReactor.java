@@ -126,10 +126,7 @@ public class GuiFusionReactor extends GuiBase<BuiltScreenHandler> {
 	}
 
 	public Optional<Pair<Integer, Integer>> getCoilStackCount() {
-		if (!Torus.getTorusSizeCache().containsKey(blockEntity.size)) {
-			return Optional.empty();
-		}
-		int count = Torus.getTorusSizeCache().get(blockEntity.size);
+		int count = Torus.getCoilCount(blockEntity.size);
 		return Optional.of(Pair.of(count / 64, count % 64));
 	}
 }
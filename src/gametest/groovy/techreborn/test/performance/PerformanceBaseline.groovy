@@ -0,0 +1,146 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.performance
+
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import groovy.util.logging.Slf4j
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * The tick times of each scenario measured on the CI runner, that new measurements are compared against.
+ *
+ * A scenario regresses when it is slower than its baseline by more than the relative tolerance of the baseline file.
+ * Scenarios without a baseline are only reported. To calibrate, run the game tests on the CI runner and copy the file
+ * written to the {@code techreborn.gametest.performance.results-file} property over the baseline.
+ */
+@Slf4j
+class PerformanceBaseline {
+	private static final String BASELINE_FILE_PROPERTY = "techreborn.gametest.performance.baseline-file"
+	private static final double DEFAULT_TOLERANCE = 0.25
+	private static final double DEFAULT_P99_TOLERANCE = 0.5
+
+	private static PerformanceBaseline instance = null
+
+	/**
+	 * How much slower than the baseline the mean tick time may be, 0.25 allows 25% more
+	 */
+	final double tolerance
+	/**
+	 * The same for the 99th percentile, which is noisier than the mean
+	 */
+	final double p99Tolerance
+	private final Map<String, Entry> entries
+
+	private PerformanceBaseline(double tolerance, double p99Tolerance, Map<String, Entry> entries) {
+		this.tolerance = tolerance
+		this.p99Tolerance = p99Tolerance
+		this.entries = entries
+	}
+
+	static synchronized PerformanceBaseline get() {
+		if (instance == null) {
+			instance = load(System.getProperty(BASELINE_FILE_PROPERTY))
+		}
+
+		return instance
+	}
+
+	private static PerformanceBaseline load(String file) {
+		if (file == null || !Files.exists(Path.of(file))) {
+			log.warn("No performance baseline found at $file, the scenarios are only reported")
+			return new PerformanceBaseline(DEFAULT_TOLERANCE, DEFAULT_P99_TOLERANCE, [:])
+		}
+
+		JsonObject json = Files.newBufferedReader(Path.of(file)).withCloseable { JsonParser.parseReader(it).asJsonObject }
+		Map<String, Entry> entries = [:]
+		json.getAsJsonObject("scenarios")?.entrySet()?.each {
+			JsonObject scenario = it.value.asJsonObject
+			entries[it.key] = new Entry(scenario.get("meanMillis").asDouble, scenario.get("p99Millis").asDouble)
+		}
+
+		return new PerformanceBaseline(
+			json.has("tolerance") ? json.get("tolerance").asDouble : DEFAULT_TOLERANCE,
+			json.has("p99Tolerance") ? json.get("p99Tolerance").asDouble : DEFAULT_P99_TOLERANCE,
+			entries
+		)
+	}
+
+	Entry get(String scenario) {
+		return entries[scenario]
+	}
+
+	/**
+	 * @return A description of the regression, or null if the statistics are within the tolerance of the baseline
+	 */
+	String check(String scenario, TickTimer.TickStatistics statistics) {
+		Entry entry = get(scenario)
+		if (entry == null) {
+			return null
+		}
+
+		if (statistics.meanMillis > entry.meanMillis * (1 + tolerance)) {
+			return "Mean tick time of ${PerformanceReport.format(statistics.meanMillis)}ms is more than ${Math.round(tolerance * 100)}% above the baseline of ${PerformanceReport.format(entry.meanMillis)}ms"
+		}
+		if (statistics.p99Millis > entry.p99Millis * (1 + p99Tolerance)) {
+			return "p99 tick time of ${PerformanceReport.format(statistics.p99Millis)}ms is more than ${Math.round(p99Tolerance * 100)}% above the baseline of ${PerformanceReport.format(entry.p99Millis)}ms"
+		}
+		return null
+	}
+
+	/**
+	 * Write measured statistics in the baseline format, keeping the tolerances of this baseline.
+	 */
+	void write(Path path, Map<String, TickTimer.TickStatistics> statistics) {
+		JsonObject json = new JsonObject()
+		json.addProperty("tolerance", tolerance)
+		json.addProperty("p99Tolerance", p99Tolerance)
+
+		JsonObject scenarios = new JsonObject()
+		statistics.each { name, scenarioStatistics ->
+			JsonObject scenario = new JsonObject()
+			scenario.addProperty("meanMillis", scenarioStatistics.meanMillis)
+			scenario.addProperty("p99Millis", scenarioStatistics.p99Millis)
+			scenarios.add(name, scenario)
+		}
+		json.add("scenarios", scenarios)
+
+		Files.createDirectories(path.toAbsolutePath().parent)
+		Files.writeString(path, new GsonBuilder().setPrettyPrinting().create().toJson(json))
+	}
+
+	static class Entry {
+		final double meanMillis
+		final double p99Millis
+
+		Entry(double meanMillis, double p99Millis) {
+			this.meanMillis = meanMillis
+			this.p99Millis = p99Millis
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.performance
+
+import groovy.util.logging.Slf4j
+import org.w3c.dom.Document
+import org.w3c.dom.Element
+
+import javax.xml.parsers.DocumentBuilderFactory
+import javax.xml.transform.OutputKeys
+import javax.xml.transform.TransformerFactory
+import javax.xml.transform.dom.DOMSource
+import javax.xml.transform.stream.StreamResult
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Writes the measured tick times of the performance scenarios as a JUnit report.
+ *
+ * The game test report only contains the test names and durations, so the measurements go to a separate report,
+ * next to it. The file is rewritten after every scenario, so that it is complete even if a later test crashes.
+ */
+@Slf4j
+class PerformanceReport {
+	private static final String REPORT_FILE_PROPERTY = "techreborn.gametest.performance.report-file"
+	private static final String RESULTS_FILE_PROPERTY = "techreborn.gametest.performance.results-file"
+	private static final List<Result> results = []
+
+	static synchronized void record(Result result) {
+		log.info("Scenario ${result.scenario}: mean ${format(result.statistics.meanMillis)}ms, p99 ${format(result.statistics.p99Millis)}ms over ${result.statistics.ticks} ticks")
+		results.add(result)
+
+		String reportFile = System.getProperty(REPORT_FILE_PROPERTY)
+		if (reportFile != null) {
+			write(Path.of(reportFile))
+		}
+
+		// The same measurements in the baseline format, to calibrate the baseline from a CI run
+		String resultsFile = System.getProperty(RESULTS_FILE_PROPERTY)
+		if (resultsFile != null) {
+			PerformanceBaseline.get().write(Path.of(resultsFile), results.collectEntries { [it.scenario, it.statistics] })
+		}
+	}
+
+	private static void write(Path path) {
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()
+		Element testSuite = document.createElement("testsuite")
+		testSuite.setAttribute("name", "performance")
+		testSuite.setAttribute("tests", results.size().toString())
+		testSuite.setAttribute("failures", results.count { it.failure != null }.toString())
+		document.appendChild(testSuite)
+
+		for (Result result : results) {
+			Element testCase = document.createElement("testcase")
+			testCase.setAttribute("name", result.scenario)
+			testCase.setAttribute("classname", PerformanceTest.name)
+			testCase.setAttribute("time", format(result.statistics.meanMillis * result.statistics.ticks / 1000D))
+			testSuite.appendChild(testCase)
+
+			Element properties = document.createElement("properties")
+			property(document, properties, "ticks", result.statistics.ticks.toString())
+			property(document, properties, "meanMillis", format(result.statistics.meanMillis))
+			property(document, properties, "p99Millis", format(result.statistics.p99Millis))
+			property(document, properties, "maxMillis", format(result.statistics.maxMillis))
+			if (result.baseline != null) {
+				property(document, properties, "baselineMeanMillis", format(result.baseline.meanMillis))
+				property(document, properties, "baselineP99Millis", format(result.baseline.p99Millis))
+			}
+			testCase.appendChild(properties)
+
+			if (result.failure != null) {
+				Element failure = document.createElement("failure")
+				failure.setAttribute("message", result.failure)
+				testCase.appendChild(failure)
+			}
+		}
+
+		Files.createDirectories(path.toAbsolutePath().parent)
+		def transformer = TransformerFactory.newInstance().newTransformer()
+		transformer.setOutputProperty(OutputKeys.INDENT, "yes")
+		Files.newBufferedWriter(path).withCloseable {
+			transformer.transform(new DOMSource(document), new StreamResult(it))
+		}
+	}
+
+	private static void property(Document document, Element properties, String name, String value) {
+		Element property = document.createElement("property")
+		property.setAttribute("name", name)
+		property.setAttribute("value", value)
+		properties.appendChild(property)
+	}
+
+	static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value)
+	}
+
+	static class Result {
+		final String scenario
+		final TickTimer.TickStatistics statistics
+		final PerformanceBaseline.Entry baseline
+		final String failure
+
+		Result(String scenario, TickTimer.TickStatistics statistics, PerformanceBaseline.Entry baseline, String failure) {
+			this.scenario = scenario
+			this.statistics = statistics
+			this.baseline = baseline
+			this.failure = failure
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.performance
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet
+import it.unimi.dsi.fastutil.longs.LongSet
+import net.minecraft.block.Block
+import net.minecraft.block.BlockState
+import net.minecraft.block.Blocks
+import net.minecraft.inventory.Inventory
+import net.minecraft.server.world.ServerWorld
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.ChunkPos
+import reborncore.common.blockentity.MachineBaseBlockEntity
+import techreborn.test.TRTestContext
+
+/**
+ * A large structure that is built programmatically, ticked for a while, and then measured.
+ *
+ * The structures are much larger than the test template, so the chunks they cover are force loaded while the scenario
+ * runs and everything is removed again once it has been measured.
+ */
+class PerformanceScenario {
+	private static final String ENFORCE_PROPERTY = "techreborn.gametest.performance.enforce"
+	// Keep the tick limit of the tests above the sum of these
+	static final int WARMUP_TICKS = 100
+	static final int MEASURED_TICKS = 200
+
+	final TRTestContext context
+	final String name
+	private final List<BlockPos> placed = []
+	private final LongSet forcedChunks = new LongOpenHashSet()
+
+	PerformanceScenario(TRTestContext context, String name) {
+		this.context = context
+		this.name = name
+	}
+
+	ServerWorld getWorld() {
+		return context.world
+	}
+
+	/**
+	 * Place a block relative to the test origin
+	 *
+	 * @return The absolute position of the block
+	 */
+	BlockPos place(int x, int y, int z, Block block) {
+		return place(x, y, z, block.defaultState)
+	}
+
+	BlockPos place(int x, int y, int z, BlockState state) {
+		BlockPos pos = context.getAbsolutePos(new BlockPos(x, y, z))
+		ChunkPos chunkPos = new ChunkPos(pos)
+		if (forcedChunks.add(chunkPos.toLong())) {
+			world.setChunkForced(chunkPos.x, chunkPos.z, true)
+		}
+
+		world.setBlockState(pos, state)
+		placed.add(pos)
+		return pos
+	}
+
+	def <T> T blockEntity(BlockPos pos, Class<T> type) {
+		def blockEntity = world.getBlockEntity(pos)
+
+		if (!type.isInstance(blockEntity)) {
+			context.throwPositionedException("Expected a ${type.simpleName}", context.getRelativePos(pos))
+		}
+
+		return type.cast(blockEntity)
+	}
+
+	/**
+	 * Let the structure settle, measure the tick times, then tear the structure down and compare them to the baseline.
+	 * A regression only fails the test when the {@code techreborn.gametest.performance.enforce} property is true,
+	 * otherwise it is only recorded in the report. When enforcing, a scenario without a baseline fails as well, so that
+	 * an uncalibrated scenario can't pass unnoticed.
+	 */
+	void measure() {
+		TickTimer timer = null
+
+		context.waitAndRun(WARMUP_TICKS) {
+			timer = TickTimer.start(MEASURED_TICKS)
+		}
+
+		context.waitAndRun(WARMUP_TICKS + MEASURED_TICKS) {
+			def statistics = timer.stop()
+			remove()
+
+			PerformanceBaseline baseline = PerformanceBaseline.get()
+			String failure = baseline.check(name, statistics)
+			if (baseline.get(name) == null && Boolean.getBoolean(ENFORCE_PROPERTY)) {
+				failure = "No baseline, copy the measured entry from the performance results file into the baseline"
+			}
+
+			PerformanceReport.record(new PerformanceReport.Result(name, statistics, baseline.get(name), failure))
+
+			if (failure != null && Boolean.getBoolean(ENFORCE_PROPERTY)) {
+				context.throwGameTestException("$name: $failure")
+			}
+			context.complete()
+		}
+	}
+
+	private void remove() {
+		// Empty the inventories first, so that removing the blocks doesn't scatter thousands of items
+		for (BlockPos pos : placed) {
+			def blockEntity = world.getBlockEntity(pos)
+			if (blockEntity instanceof MachineBaseBlockEntity) {
+				blockEntity.optionalInventory.ifPresent { it.clear() }
+			} else if (blockEntity instanceof Inventory) {
+				blockEntity.clear()
+			}
+		}
+
+		for (BlockPos pos : placed) {
+			world.setBlockState(pos, Blocks.AIR.defaultState)
+		}
+		placed.clear()
+
+		for (long chunkPos : forcedChunks) {
+			world.setChunkForced(ChunkPos.getPackedX(chunkPos), ChunkPos.getPackedZ(chunkPos), false)
+		}
+		forcedChunks.clear()
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.performance
+
+import net.minecraft.block.Blocks
+import net.minecraft.block.entity.BarrelBlockEntity
+import net.minecraft.item.ItemStack
+import net.minecraft.item.Items
+import net.minecraft.test.GameTest
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.Direction
+import reborncore.common.blockentity.MachineBaseBlockEntity
+import reborncore.common.blockentity.SlotConfiguration
+import reborncore.common.crafting.RecipeUtils
+import reborncore.common.util.Torus
+import techreborn.blockentity.machine.multiblock.FusionControlComputerBlockEntity
+import techreborn.config.TechRebornConfig
+import techreborn.init.ModRecipes
+import techreborn.init.TRContent
+import techreborn.test.TRGameTest
+import techreborn.test.TRTestContext
+
+/**
+ * Factory scale scenarios whose tick times are compared to a committed baseline, see {@link PerformanceBaseline}.
+ *
+ * Each scenario runs in its own batch, so that the measured tick times only contain that scenario.
+ * The measurements are written to the report set by the {@code techreborn.gametest.performance.report-file} property.
+ */
+class PerformanceTest extends TRGameTest {
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", batchId = "performance_cable_grid", tickLimit = 400)
+	def testCableGrid(TRTestContext context) {
+		/**
+		 * A 100x100 grid of copper cables (10,000 cables) between 100 creative solar panels and 100 MFEs
+		 */
+		def scenario = new PerformanceScenario(context, "cable_grid")
+
+		for (int x = 0; x < 100; x++) {
+			for (int z = 0; z < 100; z++) {
+				scenario.place(x, 2, z, TRContent.Cables.COPPER.block)
+
+				if (x % 10 == 0 && z % 10 == 0) {
+					scenario.place(x, 1, z, TRContent.SolarPanels.CREATIVE.block)
+				} else if (x % 10 == 5 && z % 10 == 5) {
+					scenario.place(x, 3, z, TRContent.Machine.MEDIUM_VOLTAGE_SU.block)
+				}
+			}
+		}
+
+		scenario.measure()
+	}
+
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", batchId = "performance_auto_io_machines", tickLimit = 400)
+	def testAutoIOMachines(TRTestContext context) {
+		/**
+		 * 1,000 electric furnaces, each pulling cobblestone from a barrel and pushing stone into another one with auto-IO
+		 */
+		def scenario = new PerformanceScenario(context, "auto_io_machines")
+
+		for (int layer = 0; layer < 10; layer++) {
+			for (int row = 0; row < 10; row++) {
+				for (int column = 0; column < 10; column++) {
+					int x = column * 3 + 1
+					int y = layer * 2 + 2
+
+					scenario.place(x, y - 1, row, TRContent.SolarPanels.CREATIVE.block)
+					BlockPos inputPos = scenario.place(x - 1, y, row, Blocks.BARREL)
+					BlockPos machinePos = scenario.place(x, y, row, TRContent.Machine.ELECTRIC_FURNACE.block)
+					scenario.place(x + 1, y, row, Blocks.BARREL)
+
+					def input = scenario.blockEntity(inputPos, BarrelBlockEntity)
+					for (int slot = 0; slot < input.size(); slot++) {
+						input.setStack(slot, new ItemStack(Items.COBBLESTONE, 64))
+					}
+
+					def machine = scenario.blockEntity(machinePos, MachineBaseBlockEntity)
+					// Creates the slot configuration, this would otherwise happen on the first tick
+					machine.onLoad()
+					autoIO(machine, 0, Direction.WEST, SlotConfiguration.ExtractConfig.INPUT)
+					autoIO(machine, 1, Direction.EAST, SlotConfiguration.ExtractConfig.OUTPUT)
+				}
+			}
+		}
+
+		scenario.measure()
+	}
+
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", batchId = "performance_fusion_reactor", tickLimit = 400)
+	def testMaxSizeFusionReactor(TRTestContext context) {
+		/**
+		 * A fusion reactor of the maximum configured size, running its first recipe
+		 */
+		def scenario = new PerformanceScenario(context, "fusion_reactor")
+		int size = TechRebornConfig.fusionControlComputerMaxCoilSize
+		// The ring has a radius of half the size, keep it clear of the test origin
+		int center = size.intdiv(2) + 4
+
+		BlockPos computerPos = scenario.place(center, 4, center, TRContent.Machine.FUSION_CONTROL_COMPUTER.block)
+		scenario.place(center, 4, center - 1, TRContent.SolarPanels.CREATIVE.block)
+
+		for (BlockPos coil : Torus.getOriginPositions(size)) {
+			scenario.place(center + coil.x, 4 + coil.y, center + coil.z, TRContent.Machine.FUSION_COIL.block)
+		}
+
+		def computer = scenario.blockEntity(computerPos, FusionControlComputerBlockEntity)
+		computer.changeSize(size - computer.size)
+
+		def recipe = RecipeUtils.getRecipeEntries(scenario.world, ModRecipes.FUSION_REACTOR).first().value()
+		recipe.ingredients().eachWithIndex { ingredient, slot ->
+			ItemStack stack = ingredient.ingredient().matchingStacks[0].copy()
+			stack.count = stack.maxCount
+			computer.inventory.setStack(slot, stack)
+		}
+
+		scenario.measure()
+	}
+
+	@GameTest(templateName = "fabric-gametest-api-v1:empty", batchId = "performance_solar_field", tickLimit = 400)
+	def testDenseSolarField(TRTestContext context) {
+		/**
+		 * A 64x64 field of basic solar panels (4,096 panels), charging 64 batboxes below it
+		 */
+		def scenario = new PerformanceScenario(context, "solar_field")
+
+		for (int x = 0; x < 64; x++) {
+			for (int z = 0; z < 64; z++) {
+				scenario.place(x, 2, z, TRContent.SolarPanels.BASIC.block)
+
+				if (x % 8 == 0 && z % 8 == 0) {
+					scenario.place(x, 1, z, TRContent.Machine.LOW_VOLTAGE_SU.block)
+				}
+			}
+		}
+
+		scenario.measure()
+	}
+
+	private static void autoIO(MachineBaseBlockEntity machine, int slot, Direction side, SlotConfiguration.ExtractConfig config) {
+		def holder = machine.slotConfiguration.getSlotDetails(slot)
+		holder.updateSlotConfig(new SlotConfiguration.SlotConfig(side, new SlotConfiguration.SlotIO(config), slot))
+
+		if (config == SlotConfiguration.ExtractConfig.INPUT) {
+			holder.setInput(true)
+		} else {
+			holder.setOutput(true)
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.performance
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents
+
+/**
+ * Records the length of each server tick while a scenario is measured.
+ *
+ * Only one timer can be active at a time, the performance tests each run in their own batch.
+ */
+class TickTimer {
+	private static boolean registered = false
+	private static TickTimer active = null
+
+	private final long[] tickNanos
+	private int ticks = 0
+	private long tickStart = 0
+
+	private TickTimer(int maxTicks) {
+		this.tickNanos = new long[maxTicks]
+	}
+
+	/**
+	 * Start recording, the current tick is not included as it has already started.
+	 */
+	static TickTimer start(int maxTicks) {
+		if (!registered) {
+			registered = true
+			ServerTickEvents.START_SERVER_TICK.register { server -> active?.startTick() }
+			ServerTickEvents.END_SERVER_TICK.register { server -> active?.endTick() }
+		}
+
+		active = new TickTimer(maxTicks)
+		return active
+	}
+
+	private void startTick() {
+		tickStart = System.nanoTime()
+	}
+
+	private void endTick() {
+		if (tickStart != 0 && ticks < tickNanos.length) {
+			tickNanos[ticks++] = System.nanoTime() - tickStart
+		}
+	}
+
+	/**
+	 * Stop recording, the current tick is not included as it has not finished yet.
+	 */
+	TickStatistics stop() {
+		if (active == this) {
+			active = null
+		}
+
+		return new TickStatistics(Arrays.copyOf(tickNanos, ticks))
+	}
+
+	static class TickStatistics {
+		final int ticks
+		final double meanMillis
+		final double p99Millis
+		final double maxMillis
+
+		TickStatistics(long[] tickNanos) {
+			long[] sorted = tickNanos.clone()
+			Arrays.sort(sorted)
+
+			ticks = sorted.length
+			meanMillis = ticks == 0 ? 0 : (sorted.sum() as long) / ticks / 1_000_000D
+			p99Millis = ticks == 0 ? 0 : sorted[(int) Math.ceil(ticks * 0.99) - 1] / 1_000_000D
+			maxMillis = ticks == 0 ? 0 : sorted[ticks - 1] / 1_000_000D
+		}
+	}
+}
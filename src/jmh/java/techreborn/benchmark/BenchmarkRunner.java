@@ -0,0 +1,125 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.benchmark;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.recipes.RecipeCrafter;
+import techreborn.init.TRContent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the JMH benchmarks inside a dedicated server, once it has started.
+ * <p>
+ * The benchmarks need the registries, the recipes and a world, so they can't run in a plain JVM. They run in-process
+ * on the JMH worker threads while the server thread is blocked waiting for them, so nothing ticks while they are
+ * measured. The server is stopped when they are done.
+ * <p>
+ * As the server thread is blocked, the benchmarks must not access chunks: off the server thread the chunk manager
+ * hands chunk lookups to the server thread and waits for them, which never completes. Anything that needs a chunk has
+ * to be set up in {@link #prepare(MinecraftServer)}.
+ */
+public class BenchmarkRunner implements ModInitializer {
+	private static final Logger LOGGER = LoggerFactory.getLogger("techreborn-jmh");
+	/**
+	 * The vanilla items that grinders are prepared with, keep in sync with {@link RecipeCrafterBenchmark#input}.
+	 */
+	private static final List<String> GRINDER_INPUTS = List.of("iron_ore", "cobblestone", "dirt");
+
+	private static ServerWorld world;
+	private static final Map<String, RecipeCrafter> grinderCrafters = new HashMap<>();
+
+	@Override
+	public void onInitialize() {
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+			try {
+				prepare(server);
+				run();
+			} catch (RunnerException e) {
+				LOGGER.error("Failed to run the benchmarks", e);
+			} finally {
+				server.stop(false);
+			}
+		});
+	}
+
+	/**
+	 * Sets up the world state that the benchmarks use, this has to happen on the server thread.
+	 */
+	private static void prepare(MinecraftServer server) {
+		world = server.getOverworld();
+		BlockPos origin = world.getSpawnPos().up(64);
+
+		int index = 0;
+		for (String input : GRINDER_INPUTS) {
+			BlockPos pos = origin.east(index++ * 2);
+			world.setBlockState(pos, TRContent.Machine.GRINDER.block.getDefaultState());
+
+			MachineBaseBlockEntity machine = (MachineBaseBlockEntity) world.getBlockEntity(pos);
+			machine.getOptionalInventory().orElseThrow().setStack(0, new ItemStack(Registries.ITEM.get(Identifier.ofVanilla(input)), 64));
+			RecipeCrafter crafter = machine.getOptionalCrafter().orElseThrow();
+			// Let the crafter update the block state now, the benchmark thread must not do that
+			crafter.updateCurrentRecipe();
+			grinderCrafters.put(input, crafter);
+		}
+	}
+
+	private static void run() throws RunnerException {
+		Options options = new OptionsBuilder()
+			.include("techreborn\\..*Benchmark")
+			// The benchmarks need this JVM, see the class comment
+			.forks(0)
+			.resultFormat(ResultFormatType.JSON)
+			.result(System.getProperty("techreborn.jmh.results", "jmh-results.json"))
+			.build();
+
+		new Runner(options).run();
+	}
+
+	static ServerWorld getWorld() {
+		return world;
+	}
+
+	static RecipeCrafter getGrinderCrafter(String input) {
+		return grinderCrafters.get(input);
+	}
+}
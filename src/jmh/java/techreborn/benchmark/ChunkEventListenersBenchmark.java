@@ -0,0 +1,127 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.benchmark;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reborncore.common.misc.world.ChunkEventListener;
+import reborncore.common.misc.world.ChunkEventListeners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration and block change dispatch of {@link ChunkEventListeners}, with a number of multiblocks in one area.
+ * This replaces the ChunkPosMultiMap benchmarks, the listeners are indexed by chunk section now.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ChunkEventListenersBenchmark {
+	@Param({"1", "64"})
+	public int multiblocks;
+
+	private final List<CountingListener> listeners = new ArrayList<>();
+	private final List<List<BlockPos>> shapes = new ArrayList<>();
+	private ServerWorld world;
+	private BlockPos insideShape;
+	private BlockPos outsideShape;
+
+	@Setup
+	public void setup() {
+		world = BenchmarkRunner.getWorld();
+		BlockPos origin = world.getSpawnPos().up(96);
+
+		for (int i = 0; i < multiblocks; i++) {
+			// A 5x5x5 shape, next to each other along the x axis
+			BlockPos corner = origin.east(i * 5);
+			List<BlockPos> shape = new ArrayList<>();
+			for (BlockPos pos : BlockPos.iterate(corner, corner.add(4, 4, 4))) {
+				shape.add(pos.toImmutable());
+			}
+			CountingListener listener = new CountingListener();
+			ChunkEventListeners.register(world, listener, shape);
+			listeners.add(listener);
+			shapes.add(shape);
+		}
+
+		insideShape = origin.add(2, 2, 2);
+		outsideShape = origin.add(2, 8, 2);
+	}
+
+	@TearDown
+	public void tearDown() {
+		listeners.forEach(ChunkEventListeners::unregister);
+		listeners.clear();
+		shapes.clear();
+	}
+
+	@Benchmark
+	public void blockChangeInsideShape() {
+		ChunkEventListeners.onBlockStateChange(world, new ChunkPos(insideShape), insideShape);
+	}
+
+	@Benchmark
+	public void blockChangeOutsideShape() {
+		ChunkEventListeners.onBlockStateChange(world, new ChunkPos(outsideShape), outsideShape);
+	}
+
+	@Benchmark
+	public void reregister() {
+		ChunkEventListeners.register(world, listeners.get(0), shapes.get(0));
+	}
+
+	private static class CountingListener implements ChunkEventListener {
+		private long updates = 0;
+
+		@Override
+		public void onBlockUpdate(BlockPos pos) {
+			updates++;
+		}
+
+		@Override
+		public void onUnloadChunk() {
+		}
+
+		@Override
+		public void onLoadChunk() {
+		}
+	}
+}
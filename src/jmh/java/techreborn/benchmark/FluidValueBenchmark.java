@@ -0,0 +1,73 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reborncore.common.fluid.FluidValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FluidValue} arithmetic as used by tanks and fluid recipes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FluidValueBenchmark {
+	private FluidValue amount = FluidValue.BUCKET.multiply(8);
+	private FluidValue delta = FluidValue.BUCKET_QUARTER;
+	private FluidValue capacity = FluidValue.BUCKET.multiply(16);
+
+	@Benchmark
+	public FluidValue fill() {
+		// The usual tank insertion: clamp to the free space, then add
+		FluidValue inserted = delta.min(capacity.subtract(amount));
+		return amount.add(inserted);
+	}
+
+	@Benchmark
+	public boolean compare() {
+		return amount.lessThan(capacity) && amount.equalOrMoreThan(delta);
+	}
+
+	@Benchmark
+	public FluidValue fromMillibuckets() {
+		return FluidValue.fromMillibuckets(250);
+	}
+
+	@Benchmark
+	public FluidValue fraction() {
+		return capacity.fraction(3);
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import net.minecraft.server.world.ServerWorld;
+import reborncore.common.crafting.RebornRecipe;
+import reborncore.common.crafting.RecipeIndex;
+import reborncore.common.recipes.RecipeCrafter;
+import techreborn.init.ModRecipes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recipe lookup of a grinder, against all the grinder recipes of the loaded datapacks.
+ * <p>
+ * This is the lookup part of {@link RecipeCrafter#updateCurrentRecipe()}, without the block state update that
+ * needs the chunk, which is only accessible from the server thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RecipeCrafterBenchmark {
+	@Param({"iron_ore", "cobblestone", "dirt"})
+	public String input;
+
+	private ServerWorld world;
+	private RecipeCrafter crafter;
+
+	@Setup
+	public void setup() {
+		world = BenchmarkRunner.getWorld();
+		crafter = BenchmarkRunner.getGrinderCrafter(input);
+	}
+
+	@Benchmark
+	public RebornRecipe findRecipe() {
+		for (RebornRecipe recipe : RecipeIndex.get(world, ModRecipes.GRINDER).getCandidates(crafter.inventory, crafter.inputSlots)) {
+			if (crafter.hasAllInputs(recipe)) {
+				return recipe;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.math.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reborncore.common.blockentity.SlotConfiguration;
+import reborncore.common.util.RebornInventory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and lookups of a {@link SlotConfiguration}, sized like the configuration of a machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SlotConfigurationBenchmark {
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	@Param({"3", "12"})
+	public int slots;
+
+	private SlotConfiguration slotConfiguration;
+	private NbtCompound nbt;
+	private ByteBuf buf;
+
+	@Setup
+	public void setup() {
+		slotConfiguration = new SlotConfiguration(new RebornInventory<>(slots, "SlotConfigurationBenchmark", 64, null));
+		nbt = slotConfiguration.write();
+		buf = Unpooled.buffer();
+	}
+
+	@Benchmark
+	public NbtCompound writeNbt() {
+		return slotConfiguration.write();
+	}
+
+	@Benchmark
+	public SlotConfiguration readNbt() {
+		return new SlotConfiguration(nbt);
+	}
+
+	@Benchmark
+	public SlotConfiguration packetRoundTrip() {
+		buf.clear();
+		SlotConfiguration.PACKET_CODEC.encode(buf, slotConfiguration);
+		return SlotConfiguration.PACKET_CODEC.decode(buf);
+	}
+
+	@Benchmark
+	public void getSlotDetails(Blackhole blackhole) {
+		for (int i = 0; i < slots; i++) {
+			blackhole.consume(slotConfiguration.getSlotDetails(i));
+		}
+	}
+
+	@Benchmark
+	public void getSideDetail(Blackhole blackhole) {
+		for (int i = 0; i < slots; i++) {
+			SlotConfiguration.SlotConfigHolder holder = slotConfiguration.getSlotDetails(i);
+			for (Direction side : DIRECTIONS) {
+				blackhole.consume(holder.getSideDetail(side));
+			}
+		}
+	}
+
+	@Benchmark
+	public void getAvailableSlots(Blackhole blackhole) {
+		for (Direction side : DIRECTIONS) {
+			blackhole.consume(slotConfiguration.getAvailableSlots(side));
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.cable;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reborncore.common.powerSystem.PredictableEnergyStorage;
+import team.reborn.energy.api.base.SimpleEnergyStorage;
+import techreborn.init.TRContent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CableTickManager} dispatch over a synthetic set of targets.
+ * Each invocation pushes energy into the targets and pulls it back out, so that their state stays the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CableDispatchBenchmark {
+	private static final TRContent.Cables CABLE_TYPE = TRContent.Cables.HV;
+
+	@Param({"6", "64", "512"})
+	public int targetCount;
+
+	/**
+	 * Whether the targets report their limits, or have to be simulated.
+	 */
+	@Param({"true", "false"})
+	public boolean predictable;
+
+	private final List<OfferedEnergyStorage> targets = new ArrayList<>();
+	private CableBlockEntity sourceCable;
+
+	@Setup
+	public void setup() {
+		sourceCable = new CableBlockEntity(BlockPos.ORIGIN, CABLE_TYPE.block.getDefaultState(), CABLE_TYPE);
+		for (int i = 0; i < targetCount; i++) {
+			// Targets of different sizes, so that the fair share has something to do
+			long capacity = CABLE_TYPE.transferRate * (1 + i % 4);
+			SimpleEnergyStorage storage = predictable
+				? new PredictableStorage(capacity, CABLE_TYPE.transferRate / 2, CABLE_TYPE.transferRate / 2)
+				: new SimpleEnergyStorage(capacity, CABLE_TYPE.transferRate / 2, CABLE_TYPE.transferRate / 2);
+			storage.amount = capacity / 2;
+			targets.add(new OfferedEnergyStorage(sourceCable, Direction.values()[i % 6], storage));
+		}
+	}
+
+	@Benchmark
+	public long insertAndExtract() {
+		CableTickManager.targetStorages.addAll(targets);
+		try {
+			long inserted = CableTickManager.dispatchTransfer(CABLE_TYPE, CableTickManager.TransferOperation.INSERT, CABLE_TYPE.transferRate * 4L);
+			long extracted = CableTickManager.dispatchTransfer(CABLE_TYPE, CableTickManager.TransferOperation.EXTRACT, inserted);
+			sourceCable.blockedSides = 0;
+			return inserted - extracted;
+		} finally {
+			CableTickManager.targetStorages.clear();
+		}
+	}
+
+	private static class PredictableStorage extends SimpleEnergyStorage implements PredictableEnergyStorage {
+		private PredictableStorage(long capacity, long maxInsert, long maxExtract) {
+			super(capacity, maxInsert, maxExtract);
+		}
+
+		@Override
+		public long getInsertLimit() {
+			return Math.min(maxInsert, capacity - amount);
+		}
+
+		@Override
+		public long getExtractLimit() {
+			return Math.min(maxExtract, amount);
+		}
+	}
+}
@@ -25,6 +25,7 @@
 package techreborn;
 
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.block.ComposterBlock;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.item.ItemStack;
@@ -92,7 +93,9 @@ public class TechReborn implements ModInitializer {
 		FuelRecipes.init();
 
 
-		Torus.genSizeMap(TechRebornConfig.fusionControlComputerMaxCoilSize);
+		if (TechRebornConfig.fusionControlComputerCoilDiskCache) {
+			Torus.enableDiskCache(FabricLoader.getInstance().getGameDir().resolve("reborncore").resolve("torus"));
+		}
 
 		RedstoneConfiguration.fluidStack = DynamicCellItem.getCellWithFluid(Fluids.LAVA);
 		RedstoneConfiguration.powerStack = new ItemStack(TRContent.RED_CELL_BATTERY);
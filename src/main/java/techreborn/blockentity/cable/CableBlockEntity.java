@@ -26,6 +26,8 @@ package techreborn.blockentity.cable;
 
 import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.rendering.data.v1.RenderAttachmentBlockEntity;
+import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
@@ -48,10 +50,10 @@ import reborncore.api.IToolDrop;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
 import reborncore.common.powerSystem.PowerSystem;
+import reborncore.common.powerSystem.PredictableEnergyStorage;
 import reborncore.common.util.StringUtils;
 import reborncore.common.util.WorldUtils;
 import team.reborn.energy.api.EnergyStorage;
-import team.reborn.energy.api.base.SimpleSidedEnergyContainer;
 import techreborn.blocks.cable.CableBlock;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
@@ -61,31 +63,27 @@ import java.util.List;
 
 public class CableBlockEntity extends BlockEntity
 	implements BlockEntityTicker<CableBlockEntity>, IListInfoProvider, IToolDrop, RenderAttachmentBlockEntity {
-	// Can't use SimpleEnergyStorage because the cable type is not available when the BE is constructed.
-	final SimpleSidedEnergyContainer energyContainer = new SimpleSidedEnergyContainer() {
-		@Override
-		public long getCapacity() {
-			return getCableType().transferRate * 4L;
-		}
-
-		@Override
-		public long getMaxInsert(Direction side) {
-			if (allowTransfer(side)) return getCableType().transferRate;
-			else return 0;
-		}
-
-		@Override
-		public long getMaxExtract(Direction side) {
-			if (allowTransfer(side)) return getCableType().transferRate;
-			else return 0;
-		}
-	};
+	/**
+	 * Side storages exposed through {@link EnergyStorage#SIDED}, the last one being the {@code null} side.
+	 */
+	private final CableSideStorage[] sideStorages = new CableSideStorage[7];
 	private TRContent.Cables cableType = null;
 	@Nullable
 	private BlockState cover = null;
-	long lastTick = 0;
+	/**
+	 * The network this cable belongs to, or {@code null} if it has not joined one yet.
+	 */
+	@Nullable
+	CableNetwork network = null;
+	/**
+	 * Energy held by this cable while it is not part of a network.
+	 * Once the cable joins a network the energy is moved into the network pool.
+	 */
+	long storedEnergy = 0;
 	// null means that it needs to be re-queried
 	List<CableTarget> targets = null;
+	boolean listedAsTarget = false;
+	boolean targetUpdateQueued = false;
 	/**
 	 * Adjacent caches, used to quickly query adjacent cable block entities.
 	 */
@@ -97,11 +95,6 @@ public class CableBlockEntity extends BlockEntity
 	 */
 	int blockedSides = 0;
 
-	/**
-	 * This is only used during the cable tick, whereas {@link #blockedSides} is used between ticks.
-	 */
-	boolean ioBlocked = false;
-
 	public CableBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.CABLE, pos, state);
 	}
@@ -126,16 +119,35 @@ public class CableBlockEntity extends BlockEntity
 		return TRContent.Cables.COPPER;
 	}
 
-	private boolean allowTransfer(Direction side) {
+	long getCapacity() {
+		return getCableType().transferRate * 4L;
+	}
+
+	private boolean allowTransfer(CableNetwork network, @Nullable Direction side) {
+		if (network.ioBlocked) {
+			return false;
+		}
 		if (side == null) {
 			return true;
 		}
 
-		return !ioBlocked && (blockedSides & (1 << side.ordinal())) == 0;
+		return (blockedSides & (1 << side.ordinal())) == 0;
+	}
+
+	@Nullable
+	CableNetwork getNetwork() {
+		if (network == null) {
+			network = CableNetwork.join(this);
+		}
+		return network;
 	}
 
 	public EnergyStorage getSideEnergyStorage(@Nullable Direction side) {
-		return energyContainer.getSideStorage(side);
+		int index = side == null ? 6 : side.getId();
+		if (sideStorages[index] == null) {
+			sideStorages[index] = new CableSideStorage(side);
+		}
+		return sideStorages[index];
 	}
 
 	public @Nullable BlockState getCover() {
@@ -150,11 +162,19 @@ public class CableBlockEntity extends BlockEntity
 	}
 
 	public long getEnergy() {
-		return energyContainer.amount;
+		if (network != null) {
+			return network.getShare();
+		}
+		return storedEnergy;
 	}
 
 	public void setEnergy(long energy) {
-		energyContainer.amount = energy;
+		if (network != null) {
+			network.amount += energy - network.getShare();
+			network.dirty = true;
+		} else {
+			storedEnergy = energy;
+		}
 	}
 
 	private BlockApiCache<EnergyStorage, Direction> getAdjacentCache(Direction direction) {
@@ -169,36 +189,46 @@ public class CableBlockEntity extends BlockEntity
 		return getAdjacentCache(direction).getBlockEntity();
 	}
 
-	void appendTargets(List<OfferedEnergyStorage> targetStorages) {
+	/**
+	 * Re-query the adjacent targets, and update the connection properties of the block state.
+	 */
+	void updateTargets() {
 		ServerWorld serverWorld = (ServerWorld) world;
 		if (serverWorld == null) {
 			return;
 		}
 
-		// Update our targets if necessary.
-		if (targets == null) {
-			BlockState newBlockState = getCachedState();
+		BlockState newBlockState = getCachedState();
 
-			targets = new ArrayList<>();
-			for (Direction direction : Direction.values()) {
-				boolean foundSomething = false;
+		targets = new ArrayList<>();
+		for (Direction direction : Direction.values()) {
+			boolean foundSomething = false;
 
-				BlockApiCache<EnergyStorage, Direction> adjCache = getAdjacentCache(direction);
+			BlockApiCache<EnergyStorage, Direction> adjCache = getAdjacentCache(direction);
 
-				if (adjCache.getBlockEntity() instanceof CableBlockEntity adjCable) {
-					if (adjCable.getCableType().transferRate == getCableType().transferRate) {
-						// Make sure cables are not used as regular targets.
-						foundSomething = true;
-					}
-				} else if (adjCache.find(direction.getOpposite()) != null) {
+			if (adjCache.getBlockEntity() instanceof CableBlockEntity adjCable) {
+				if (adjCable.getCableType().transferRate == getCableType().transferRate) {
+					// Make sure cables are not used as regular targets.
 					foundSomething = true;
-					targets.add(new CableTarget(direction, adjCache));
 				}
-
-				newBlockState = newBlockState.with(CableBlock.PROPERTY_MAP.get(direction), foundSomething);
+			} else if (adjCache.find(direction.getOpposite()) != null) {
+				foundSomething = true;
+				targets.add(new CableTarget(direction, adjCache));
 			}
 
-			serverWorld.setBlockState(getPos(), newBlockState);
+			newBlockState = newBlockState.with(CableBlock.PROPERTY_MAP.get(direction), foundSomething);
+		}
+
+		serverWorld.setBlockState(getPos(), newBlockState);
+	}
+
+	void appendTargets(List<OfferedEnergyStorage> targetStorages) {
+		// Reset blocked sides.
+		blockedSides = 0;
+
+		// The targets are being re-queried, they will be back next tick.
+		if (targets == null) {
+			return;
 		}
 
 		// Fill the list.
@@ -208,14 +238,11 @@ public class CableBlockEntity extends BlockEntity
 			if (storage == null) {
 				// Schedule a rebuild next tick.
 				// This is just a reference change, the iterator remains valid.
-				targets = null;
+				neighborUpdate();
 			} else {
-				targetStorages.add(new OfferedEnergyStorage(this, target.directionTo, storage));
+				targetStorages.add(target.offer(this, storage));
 			}
 		}
-
-		// Reset blocked sides.
-		blockedSides = 0;
 	}
 
 	// BlockEntity
@@ -235,7 +262,7 @@ public class CableBlockEntity extends BlockEntity
 	public void readNbt(NbtCompound compound, RegistryWrapper.WrapperLookup registryLookup) {
 		super.readNbt(compound, registryLookup);
 		if (compound.contains("energy")) {
-			energyContainer.amount = compound.getLong("energy");
+			storedEnergy = compound.getLong("energy");
 		}
 		if (compound.contains("cover")) {
 			cover = NbtHelper.toBlockState(WorldUtils.getBlockRegistryWrapper(world), compound.getCompound("cover"));
@@ -247,7 +274,7 @@ public class CableBlockEntity extends BlockEntity
 	@Override
 	public void writeNbt(NbtCompound compound, RegistryWrapper.WrapperLookup registryLookup) {
 		super.writeNbt(compound, registryLookup);
-		compound.putLong("energy", energyContainer.amount);
+		compound.putLong("energy", getEnergy());
 		if (cover != null) {
 			compound.put("cover", NbtHelper.fromBlockState(cover));
 		}
@@ -255,6 +282,18 @@ public class CableBlockEntity extends BlockEntity
 
 	public void neighborUpdate() {
 		targets = null;
+		if (network != null) {
+			network.queueTargetUpdate(this);
+		}
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		// The network might be split now, let the remaining cables rebuild it.
+		if (network != null) {
+			network.invalidate();
+		}
 	}
 
 	// BlockEntityTicker
@@ -305,11 +344,101 @@ public class CableBlockEntity extends BlockEntity
 		return cover;
 	}
 
-	private record CableTarget(Direction directionTo, BlockApiCache<EnergyStorage, Direction> cache) {
+	private class CableSideStorage implements PredictableEnergyStorage {
+		@Nullable
+		private final Direction side;
+
+		private CableSideStorage(@Nullable Direction side) {
+			this.side = side;
+		}
+
+		@Override
+		public long insert(long maxAmount, TransactionContext transaction) {
+			StoragePreconditions.notNegative(maxAmount);
+
+			CableNetwork network = getNetwork();
+			if (network == null || !allowTransfer(network, side)) {
+				return 0;
+			}
+
+			long inserted = Math.min(Math.min(maxAmount, getCableType().transferRate), network.capacity - network.amount);
+			if (inserted > 0) {
+				network.updateSnapshots(transaction);
+				network.amount += inserted;
+				return inserted;
+			}
+			return 0;
+		}
+
+		@Override
+		public long extract(long maxAmount, TransactionContext transaction) {
+			StoragePreconditions.notNegative(maxAmount);
+
+			CableNetwork network = getNetwork();
+			if (network == null || !allowTransfer(network, side)) {
+				return 0;
+			}
+
+			long extracted = Math.min(Math.min(maxAmount, getCableType().transferRate), network.amount);
+			if (extracted > 0) {
+				network.updateSnapshots(transaction);
+				network.amount -= extracted;
+				return extracted;
+			}
+			return 0;
+		}
+
+		@Override
+		public long getInsertLimit() {
+			CableNetwork network = getNetwork();
+			if (network == null || !allowTransfer(network, side)) {
+				return 0;
+			}
+			return Math.max(0, Math.min(getCableType().transferRate, network.capacity - network.amount));
+		}
+
+		@Override
+		public long getExtractLimit() {
+			CableNetwork network = getNetwork();
+			if (network == null || !allowTransfer(network, side)) {
+				return 0;
+			}
+			return Math.max(0, Math.min(getCableType().transferRate, network.amount));
+		}
+
+		@Override
+		public long getAmount() {
+			return getEnergy();
+		}
+
+		@Override
+		public long getCapacity() {
+			return CableBlockEntity.this.getCapacity();
+		}
+	}
+
+	private static final class CableTarget {
+		private final Direction directionTo;
+		private final BlockApiCache<EnergyStorage, Direction> cache;
+		// Reused between ticks as long as the target exposes the same storage
+		@Nullable
+		private OfferedEnergyStorage offered = null;
+
+		private CableTarget(Direction directionTo, BlockApiCache<EnergyStorage, Direction> cache) {
+			this.directionTo = directionTo;
+			this.cache = cache;
+		}
 
 		@Nullable
 		EnergyStorage find() {
 			return cache.find(directionTo.getOpposite());
 		}
+
+		OfferedEnergyStorage offer(CableBlockEntity sourceCable, EnergyStorage storage) {
+			if (offered == null || offered.storage() != storage) {
+				offered = new OfferedEnergyStorage(sourceCable, directionTo, storage);
+			}
+			return offered;
+		}
 	}
 }
@@ -0,0 +1,268 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.cable;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
+import techreborn.init.TRContent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A group of connected cables sharing the same transfer rate.
+ * <p>
+ * The network is kept between ticks and only changes when a cable joins or leaves it.
+ * The energy of all member cables is pooled in the network, so a tick only has to visit the cables that have targets.
+ */
+final class CableNetwork extends SnapshotParticipant<Long> {
+	private static final Deque<CableBlockEntity> bfsQueue = new ArrayDeque<>();
+
+	final TRContent.Cables cableType;
+	final List<CableBlockEntity> cables = new ArrayList<>();
+	/**
+	 * Member cables that have at least one non-cable neighbour to transfer energy with.
+	 */
+	final List<CableBlockEntity> targetCables = new ArrayList<>();
+	/**
+	 * Member cables that need to re-query their targets before the next transfer.
+	 */
+	private final List<CableBlockEntity> pendingTargetUpdates = new ArrayList<>();
+	long amount = 0;
+	long capacity = 0;
+	long lastTick = -1;
+	/**
+	 * Whether the amount changed since the cables were last flagged for saving.
+	 */
+	boolean dirty = false;
+	/**
+	 * Block any cable I/O while the network accesses its amount directly.
+	 * Some things might try to access cables, for example a p2p tunnel pointing back at a cable.
+	 * If the cables and the network go out of sync, we risk duping or voiding energy.
+	 */
+	boolean ioBlocked = false;
+
+	private CableNetwork(TRContent.Cables cableType) {
+		this.cableType = cableType;
+	}
+
+	/**
+	 * Find the network for a cable that is not part of any network yet.
+	 * Connected cables without a network are gathered with a BFS, and adjacent networks are merged into the largest one.
+	 */
+	@Nullable
+	static CableNetwork join(CableBlockEntity start) {
+		if (!canJoin(start)) return null;
+
+		long transferRate = start.getCableType().transferRate;
+		List<CableBlockEntity> newCables = new ArrayList<>();
+		List<CableNetwork> adjacentNetworks = new ArrayList<>();
+		Set<CableBlockEntity> visited = new ReferenceOpenHashSet<>();
+
+		try {
+			bfsQueue.add(start);
+			visited.add(start);
+
+			while (!bfsQueue.isEmpty()) {
+				CableBlockEntity current = bfsQueue.removeFirst();
+				newCables.add(current);
+
+				for (Direction direction : Direction.values()) {
+					if (current.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable && adjCable.getCableType().transferRate == transferRate && canJoin(adjCable)) {
+						if (adjCable.network != null) {
+							if (!adjacentNetworks.contains(adjCable.network)) {
+								adjacentNetworks.add(adjCable.network);
+							}
+						} else if (visited.add(adjCable)) {
+							bfsQueue.add(adjCable);
+						}
+					}
+				}
+			}
+		} finally {
+			bfsQueue.clear();
+		}
+
+		// Keep the largest network, so that as few cables as possible have to be moved.
+		CableNetwork network = null;
+		for (CableNetwork adjacentNetwork : adjacentNetworks) {
+			if (network == null || adjacentNetwork.cables.size() > network.cables.size()) {
+				network = adjacentNetwork;
+			}
+		}
+		if (network == null) {
+			network = new CableNetwork(start.getCableType());
+		}
+
+		for (CableNetwork adjacentNetwork : adjacentNetworks) {
+			if (adjacentNetwork != network) {
+				network.absorb(adjacentNetwork);
+			}
+		}
+		for (CableBlockEntity cable : newCables) {
+			network.add(cable);
+		}
+
+		return network;
+	}
+
+	private static boolean canJoin(CableBlockEntity cable) {
+		// Make sure we ignore removed cables and cables in non-ticking chunks.
+		return !cable.isRemoved() && cable.getWorld() instanceof ServerWorld sw && sw.isChunkLoaded(cable.getPos());
+	}
+
+	private void add(CableBlockEntity cable) {
+		cable.network = this;
+		cables.add(cable);
+		capacity += cable.getCapacity();
+		amount += cable.storedEnergy;
+		cable.storedEnergy = 0;
+
+		if (cable.targets == null) {
+			queueTargetUpdate(cable);
+		} else if (!cable.targets.isEmpty()) {
+			cable.listedAsTarget = true;
+			targetCables.add(cable);
+		}
+	}
+
+	private void absorb(CableNetwork other) {
+		for (CableBlockEntity cable : other.cables) {
+			cable.network = this;
+		}
+		cables.addAll(other.cables);
+		targetCables.addAll(other.targetCables);
+		pendingTargetUpdates.addAll(other.pendingTargetUpdates);
+		amount += other.amount;
+		capacity += other.capacity;
+
+		other.cables.clear();
+		other.targetCables.clear();
+		other.pendingTargetUpdates.clear();
+		other.amount = 0;
+		other.capacity = 0;
+	}
+
+	/**
+	 * Dissolve the network, giving each cable its share of the pooled energy.
+	 * The remaining cables form new networks the next time they are accessed.
+	 */
+	void invalidate() {
+		int cableCount = cables.size();
+		for (CableBlockEntity cable : cables) {
+			cable.network = null;
+			cable.listedAsTarget = false;
+			cable.targetUpdateQueued = false;
+			cable.storedEnergy = amount / cableCount;
+			amount -= cable.storedEnergy;
+			cableCount--;
+			if (cable.getWorld() != null) {
+				cable.getWorld().markDirty(cable.getPos());
+			}
+		}
+
+		cables.clear();
+		targetCables.clear();
+		pendingTargetUpdates.clear();
+		amount = 0;
+		capacity = 0;
+	}
+
+	void queueTargetUpdate(CableBlockEntity cable) {
+		if (!cable.targetUpdateQueued) {
+			cable.targetUpdateQueued = true;
+			pendingTargetUpdates.add(cable);
+		}
+	}
+
+	/**
+	 * Re-query the targets of every cable that had a neighbour change since the last tick.
+	 */
+	void updateTargets() {
+		if (pendingTargetUpdates.isEmpty()) return;
+
+		boolean removedTargetCable = false;
+		// Updating a cable can notify its neighbours, which may queue more updates, so don't use an iterator here.
+		for (int i = 0; i < pendingTargetUpdates.size(); i++) {
+			CableBlockEntity cable = pendingTargetUpdates.get(i);
+			cable.targetUpdateQueued = false;
+			if (cable.network != this) continue;
+
+			cable.updateTargets();
+
+			boolean hasTargets = !cable.targets.isEmpty();
+			if (hasTargets != cable.listedAsTarget) {
+				cable.listedAsTarget = hasTargets;
+				if (hasTargets) {
+					targetCables.add(cable);
+				} else {
+					removedTargetCable = true;
+				}
+			}
+		}
+		pendingTargetUpdates.clear();
+
+		if (removedTargetCable) {
+			targetCables.removeIf(cable -> !cable.listedAsTarget);
+		}
+	}
+
+	/**
+	 * The share of the pooled energy that is attributed to a single cable.
+	 */
+	long getShare() {
+		return cables.isEmpty() ? 0 : amount / cables.size();
+	}
+
+	void markCablesDirty() {
+		dirty = false;
+		for (CableBlockEntity cable : cables) {
+			if (cable.getWorld() != null) {
+				cable.getWorld().markDirty(cable.getPos());
+			}
+		}
+	}
+
+	@Override
+	protected Long createSnapshot() {
+		return amount;
+	}
+
+	@Override
+	protected void readSnapshot(Long snapshot) {
+		amount = snapshot;
+	}
+
+	@Override
+	protected void onFinalCommit() {
+		dirty = true;
+	}
+}
@@ -24,19 +24,29 @@
 
 package techreborn.blockentity.cable;
 
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.util.math.Direction;
+import reborncore.common.powerSystem.PredictableEnergyStorage;
+import reborncore.common.profiler.TickProfiler;
 import team.reborn.energy.api.EnergyStorage;
 import techreborn.init.TRContent;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 class CableTickManager {
-	private static final List<CableBlockEntity> cableList = new ArrayList<>();
-	private static final List<OfferedEnergyStorage> targetStorages = new ArrayList<>();
-	private static final Deque<CableBlockEntity> bfsQueue = new ArrayDeque<>();
+	/**
+	 * How often the chunks of a network are flagged for saving, so that the cable energy gets persisted.
+	 */
+	private static final int SAVE_INTERVAL = 100;
+	static final List<OfferedEnergyStorage> targetStorages = new ArrayList<>();
+	/**
+	 * Pooled per-target arrays for {@link #dispatchTransfer}, indexed like {@link #targetStorages}.
+	 */
+	private static long[] targetLimits = new long[16];
+	private static int[] targetOrder = new int[16];
 	private static long tickCounter = 0;
 
 	static {
@@ -46,112 +56,102 @@ class CableTickManager {
 	static void handleCableTick(CableBlockEntity startingCable) {
 		if (!(startingCable.getWorld() instanceof ServerWorld)) throw new IllegalStateException();
 
-		try {
-			gatherCables(startingCable);
-			if (cableList.isEmpty()) return;
+		CableNetwork network = startingCable.getNetwork();
+		// Make sure we only tick each network once per tick.
+		if (network == null || network.lastTick == tickCounter) return;
+		network.lastTick = tickCounter;
 
-			// Group all energy into the network.
-			long networkCapacity = 0;
-			long networkAmount = 0;
-
-			for (CableBlockEntity cable : cableList) {
-				networkAmount += cable.energyContainer.amount;
-				networkCapacity += cable.energyContainer.getCapacity();
-
-				// Update cable connections.
+		long profileStart = TickProfiler.start();
+		try {
+			// Update cable connections.
+			network.updateTargets();
+			for (CableBlockEntity cable : network.targetCables) {
 				cable.appendTargets(targetStorages);
-				// Block any cable I/O while we access the network amount directly.
-				// Some things might try to access cables, for example a p2p tunnel pointing back at a cable.
-				// If the cables and the network go out of sync, we risk duping or voiding energy.
-				cable.ioBlocked = true;
 			}
 
+			network.ioBlocked = true;
+
 			// Just in case.
-			if (networkAmount > networkCapacity) {
-				networkAmount = networkCapacity;
+			if (network.amount > network.capacity) {
+				network.amount = network.capacity;
 			}
 
+			long previousAmount = network.amount;
 			// Pull energy from storages.
-			networkAmount += dispatchTransfer(startingCable.getCableType(), EnergyStorage::extract, networkCapacity - networkAmount);
+			network.amount += dispatchTransfer(network.cableType, TransferOperation.EXTRACT, network.capacity - network.amount);
 			// Push energy into storages.
-			networkAmount -= dispatchTransfer(startingCable.getCableType(), EnergyStorage::insert, networkAmount);
-
-			// Split energy evenly across cables.
-			int cableCount = cableList.size();
-			for (CableBlockEntity cable : cableList) {
-				cable.energyContainer.amount = networkAmount / cableCount;
-				networkAmount -= cable.energyContainer.amount;
-				cableCount--;
-				cable.markDirty();
-				cable.ioBlocked = false;
+			network.amount -= dispatchTransfer(network.cableType, TransferOperation.INSERT, network.amount);
+
+			if (network.amount != previousAmount) {
+				network.dirty = true;
+			}
+			if (network.dirty && tickCounter % SAVE_INTERVAL == 0) {
+				network.markCablesDirty();
 			}
 		} finally {
-			cableList.clear();
+			network.ioBlocked = false;
 			targetStorages.clear();
-			bfsQueue.clear();
+			TickProfiler.stop(TickProfiler.Section.CABLE_NETWORK, startingCable, profileStart);
 		}
 	}
 
-	private static boolean shouldTickCable(CableBlockEntity current) {
-		// Make sure we only gather and tick each cable once per tick.
-		if (current.lastTick == tickCounter) return false;
-		// Make sure we ignore cables in non-ticking chunks.
-		return current.getWorld() instanceof ServerWorld sw && sw.isChunkLoaded(current.getPos());
-	}
-
 	/**
-	 * Perform a BFS to gather all connected ticking cables.
+	 * Perform a transfer operation across a list of targets.
+	 * <p>
+	 * The amount is split with a water-filling fair share: the targets are served from the lowest to the highest limit,
+	 * and each one gets an equal share of what is left, so the amount that a target can't take goes to the next ones.
+	 * The limits are read from {@link PredictableEnergyStorage}, other storages are simulated.
 	 */
-	private static void gatherCables(CableBlockEntity start) {
-		if (!shouldTickCable(start)) return;
-
-		bfsQueue.add(start);
-		start.lastTick = tickCounter;
-		cableList.add(start);
-
-		while (!bfsQueue.isEmpty()) {
-			CableBlockEntity current = bfsQueue.removeFirst();
-
-			for (Direction direction : Direction.values()) {
-				if (current.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable && current.getCableType().transferRate == adjCable.getCableType().transferRate) {
-					if (shouldTickCable(adjCable)) {
-						bfsQueue.add(adjCable);
-						adjCable.lastTick = tickCounter;
-						cableList.add(adjCable);
-					}
-				}
+	static long dispatchTransfer(TRContent.Cables cableType, TransferOperation operation, long maxAmount) {
+		int targetCount = targetStorages.size();
+		if (targetCount == 0 || maxAmount <= 0) {
+			return 0;
+		}
+		if (targetLimits.length < targetCount) {
+			targetLimits = new long[Math.max(targetCount, targetLimits.length * 2)];
+			targetOrder = new int[targetLimits.length];
+		}
+
+		// Gather the limits, skipping the targets that can't take part.
+		int activeTargets = 0;
+		for (int i = 0; i < targetCount; ++i) {
+			long limit = Math.min(operation.getLimit(targetStorages.get(i).storage()), cableType.transferRate);
+			if (limit > 0) {
+				targetLimits[i] = limit;
+				targetOrder[activeTargets++] = i;
 			}
 		}
-	}
+		if (activeTargets == 0) {
+			return 0;
+		}
 
-	/**
-	 * Perform a transfer operation across a list of targets.
-	 */
-	private static long dispatchTransfer(TRContent.Cables cableType, TransferOperation operation, long maxAmount) {
-		// Build target list.
-		List<SortableStorage> sortedTargets = new ArrayList<>();
-		for (var storage : targetStorages) {
-			sortedTargets.add(new SortableStorage(operation, storage));
+		// Shuffle for better average transfer, targets with the same limit are then served in a random order.
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = activeTargets - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			int swap = targetOrder[i];
+			targetOrder[i] = targetOrder[j];
+			targetOrder[j] = swap;
 		}
-		// Shuffle for better average transfer.
-		Collections.shuffle(sortedTargets);
-		// Sort by lowest simulation target.
-		sortedTargets.sort(Comparator.comparingLong(sortableStorage -> sortableStorage.simulationResult));
+		// Sort by lowest limit.
+		IntArrays.quickSort(targetOrder, 0, activeTargets, (a, b) -> Long.compare(targetLimits[a], targetLimits[b]));
+
 		// Actually perform the transfer.
 		try (Transaction transaction = Transaction.openOuter()) {
 			long transferredAmount = 0;
-			for (int i = 0; i < sortedTargets.size(); ++i) {
-				SortableStorage target = sortedTargets.get(i);
-				int remainingTargets = sortedTargets.size() - i;
+			for (int i = 0; i < activeTargets; ++i) {
+				OfferedEnergyStorage target = targetStorages.get(targetOrder[i]);
+				int remainingTargets = activeTargets - i;
 				long remainingAmount = maxAmount - transferredAmount;
-				// Limit max amount to the cable transfer rate.
-				long targetMaxAmount = Math.min(remainingAmount / remainingTargets, cableType.transferRate);
+				// Limit max amount to the target limit, which includes the cable transfer rate.
+				long targetMaxAmount = Math.min(remainingAmount / remainingTargets, targetLimits[targetOrder[i]]);
+				if (targetMaxAmount <= 0) continue;
 
-				long localTransferred = operation.transfer(target.storage.storage(), targetMaxAmount, transaction);
+				long localTransferred = operation.transfer(target.storage(), targetMaxAmount, transaction);
 				if (localTransferred > 0) {
 					transferredAmount += localTransferred;
 					// Block duplicate operations.
-					target.storage.afterTransfer();
+					target.afterTransfer();
 				}
 			}
 			transaction.commit();
@@ -159,18 +159,43 @@ class CableTickManager {
 		}
 	}
 
-	private interface TransferOperation {
-		long transfer(EnergyStorage storage, long maxAmount, Transaction transaction);
-	}
+	enum TransferOperation {
+		EXTRACT {
+			@Override
+			long transfer(EnergyStorage storage, long maxAmount, Transaction transaction) {
+				return storage.extract(maxAmount, transaction);
+			}
+
+			@Override
+			long getLimit(PredictableEnergyStorage storage) {
+				return storage.getExtractLimit();
+			}
+		},
+		INSERT {
+			@Override
+			long transfer(EnergyStorage storage, long maxAmount, Transaction transaction) {
+				return storage.insert(maxAmount, transaction);
+			}
 
-	private static class SortableStorage {
-		private final OfferedEnergyStorage storage;
-		private final long simulationResult;
+			@Override
+			long getLimit(PredictableEnergyStorage storage) {
+				return storage.getInsertLimit();
+			}
+		};
+
+		abstract long transfer(EnergyStorage storage, long maxAmount, Transaction transaction);
 
-		SortableStorage(TransferOperation operation, OfferedEnergyStorage storage) {
-			this.storage = storage;
+		abstract long getLimit(PredictableEnergyStorage storage);
+
+		/**
+		 * Get the amount that the storage would transfer right now, simulating storages with dynamic limits.
+		 */
+		long getLimit(EnergyStorage storage) {
+			if (storage instanceof PredictableEnergyStorage predictable) {
+				return getLimit(predictable);
+			}
 			try (Transaction tx = Transaction.openOuter()) {
-				this.simulationResult = operation.transfer(storage.storage(), Long.MAX_VALUE, tx);
+				return transfer(storage, Long.MAX_VALUE, tx);
 			}
 		}
 	}
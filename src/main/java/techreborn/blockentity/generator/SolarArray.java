@@ -0,0 +1,366 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.generator;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+import techreborn.init.TRContent.SolarPanels;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A group of adjacent solar panels of the same type that generate as one.
+ * <p>
+ * The array is ticked once per world tick by whichever member ticks first. It checks the sky exposure of its
+ * members like a single panel does, and puts the combined generation into the boundary panels, the members that
+ * have an energy consumer next to them. Interior panels have nothing to do and go dormant, their buffers store what
+ * the boundary panels cannot take and are drained into the boundary panels again once they have space.
+ */
+final class SolarArray {
+	private static final Deque<SolarPanelBlockEntity> bfsQueue = new ArrayDeque<>();
+	private static final int EXPOSURE_INTERVAL = 20;
+
+	final SolarPanels panelType;
+	final List<SolarPanelBlockEntity> panels = new ArrayList<>();
+	private final Long2ObjectMap<List<SolarPanelBlockEntity>> panelsByChunk = new Long2ObjectOpenHashMap<>();
+	/**
+	 * Member panels that have at least one energy consumer next to them.
+	 */
+	final List<SolarPanelBlockEntity> boundaryPanels = new ArrayList<>();
+	/**
+	 * Member panels that need to re-check their neighbours before the next tick.
+	 */
+	private final List<SolarPanelBlockEntity> pendingBoundaryUpdates = new ArrayList<>();
+	private int exposedPanels = 0;
+	private boolean exposureDirty = true;
+	// Whether the interior panels might still have stored energy or free space, cleared once a full pass finds none
+	private boolean interiorHasEnergy = true;
+	private boolean interiorHasSpace = true;
+	// Where the last pass over the interior panels stopped, so full or empty panels aren't visited every tick
+	private int interiorCursor = 0;
+	private long lastTick = -1;
+
+	private SolarArray(SolarPanels panelType) {
+		this.panelType = panelType;
+	}
+
+	/**
+	 * Find the array for a panel that is not part of any array yet.
+	 * Connected panels without an array are gathered with a BFS, and adjacent arrays are merged into the largest one.
+	 */
+	@Nullable
+	static SolarArray join(SolarPanelBlockEntity start) {
+		if (!canJoin(start)) return null;
+
+		SolarPanels panelType = start.getPanel();
+		List<SolarPanelBlockEntity> newPanels = new ArrayList<>();
+		List<SolarArray> adjacentArrays = new ArrayList<>();
+		Set<SolarPanelBlockEntity> visited = new ReferenceOpenHashSet<>();
+
+		try {
+			bfsQueue.add(start);
+			visited.add(start);
+
+			while (!bfsQueue.isEmpty()) {
+				SolarPanelBlockEntity current = bfsQueue.removeFirst();
+				newPanels.add(current);
+
+				for (Direction direction : Direction.values()) {
+					BlockPos adjPos = current.getPos().offset(direction);
+					if (!current.getWorld().isChunkLoaded(adjPos)) continue;
+
+					if (current.getWorld().getBlockEntity(adjPos) instanceof SolarPanelBlockEntity adjPanel && adjPanel.getPanel() == panelType && canJoin(adjPanel)) {
+						if (adjPanel.array != null) {
+							if (!adjacentArrays.contains(adjPanel.array)) {
+								adjacentArrays.add(adjPanel.array);
+							}
+						} else if (visited.add(adjPanel)) {
+							bfsQueue.add(adjPanel);
+						}
+					}
+				}
+			}
+		} finally {
+			bfsQueue.clear();
+		}
+
+		// Keep the largest array, so that as few panels as possible have to be moved.
+		SolarArray array = null;
+		for (SolarArray adjacentArray : adjacentArrays) {
+			if (array == null || adjacentArray.panels.size() > array.panels.size()) {
+				array = adjacentArray;
+			}
+		}
+		if (array == null) {
+			array = new SolarArray(panelType);
+		}
+
+		for (SolarArray adjacentArray : adjacentArrays) {
+			if (adjacentArray != array) {
+				array.absorb(adjacentArray);
+			}
+		}
+		for (SolarPanelBlockEntity panel : newPanels) {
+			array.add(panel);
+		}
+
+		return array;
+	}
+
+	private static boolean canJoin(SolarPanelBlockEntity panel) {
+		// Creative panels fill their neighbours on their own.
+		return !panel.isRemoved() && panel.getWorld() instanceof ServerWorld && panel.getPanel() != SolarPanels.CREATIVE;
+	}
+
+	private void add(SolarPanelBlockEntity panel) {
+		panel.array = this;
+		panels.add(panel);
+		panelsByChunk.computeIfAbsent(ChunkPos.toLong(panel.getPos()), chunk -> new ArrayList<>()).add(panel);
+		queueBoundaryUpdate(panel);
+		exposureDirty = true;
+		interiorHasEnergy = true;
+		interiorHasSpace = true;
+	}
+
+	private void absorb(SolarArray other) {
+		for (SolarPanelBlockEntity panel : other.panels) {
+			add(panel);
+		}
+
+		other.panels.clear();
+		other.panelsByChunk.clear();
+		other.boundaryPanels.clear();
+		other.pendingBoundaryUpdates.clear();
+	}
+
+	/**
+	 * Dissolve the array, the remaining panels form new arrays the next time they tick.
+	 */
+	void invalidate() {
+		for (SolarPanelBlockEntity panel : panels) {
+			panel.array = null;
+			panel.boundary = false;
+			panel.boundaryUpdateQueued = false;
+			panel.wakeUp();
+		}
+
+		panels.clear();
+		panelsByChunk.clear();
+		boundaryPanels.clear();
+		pendingBoundaryUpdates.clear();
+	}
+
+	void queueBoundaryUpdate(SolarPanelBlockEntity panel) {
+		if (!panel.boundaryUpdateQueued) {
+			panel.boundaryUpdateQueued = true;
+			pendingBoundaryUpdates.add(panel);
+		}
+	}
+
+	private void updateBoundaries() {
+		if (pendingBoundaryUpdates.isEmpty()) return;
+
+		boolean removedBoundaryPanel = false;
+		for (SolarPanelBlockEntity panel : pendingBoundaryUpdates) {
+			panel.boundaryUpdateQueued = false;
+			if (panel.array != this) continue;
+
+			boolean boundary = panel.hasEnergyTarget();
+			if (boundary != panel.boundary) {
+				panel.boundary = boundary;
+				if (boundary) {
+					boundaryPanels.add(panel);
+				} else {
+					removedBoundaryPanel = true;
+				}
+				// Let the panel go dormant or resume pushing energy
+				panel.wakeUp();
+				interiorHasEnergy = true;
+				interiorHasSpace = true;
+			}
+		}
+		pendingBoundaryUpdates.clear();
+
+		if (removedBoundaryPanel) {
+			boundaryPanels.removeIf(panel -> !panel.boundary);
+		}
+	}
+
+	/**
+	 * Check which members can see the sky, with the same sky light check as a single panel.
+	 *
+	 * @return {@code false} if a member was removed or unloaded and the array has been dissolved
+	 */
+	private boolean updateExposure(World world) {
+		// Check every member first, so that the array never loads a chunk again
+		for (Long2ObjectMap.Entry<List<SolarPanelBlockEntity>> entry : panelsByChunk.long2ObjectEntrySet()) {
+			long chunkPos = entry.getLongKey();
+			WorldChunk chunk = world.getChunkManager().getWorldChunk(ChunkPos.getPackedX(chunkPos), ChunkPos.getPackedZ(chunkPos));
+			if (chunk == null) {
+				invalidate();
+				return false;
+			}
+
+			for (SolarPanelBlockEntity panel : entry.getValue()) {
+				// The chunk might have been unloaded without the block being broken
+				if (panel.isRemoved()) {
+					invalidate();
+					return false;
+				}
+			}
+		}
+
+		int exposed = 0;
+		for (SolarPanelBlockEntity panel : panels) {
+			boolean skyVisible = world.isSkyVisible(panel.getPos().up());
+			panel.setIsGenerating(skyVisible);
+			if (skyVisible) {
+				exposed++;
+			}
+		}
+		exposedPanels = exposed;
+		exposureDirty = false;
+		return true;
+	}
+
+	void tick(World world) {
+		if (lastTick == world.getTime()) return;
+		lastTick = world.getTime();
+
+		if (exposureDirty || world.getTime() % EXPOSURE_INTERVAL == 0) {
+			if (!updateExposure(world)) {
+				return;
+			}
+		}
+		updateBoundaries();
+
+		// The daylight factor is the same for every member, so it is only computed once per tick.
+		long generated = exposedPanels == 0 ? 0 : (long) SolarPanelBlockEntity.getGenerationRate(panelType, SolarPanelBlockEntity.getDaylightFactor(world)) * exposedPanels;
+
+		if (boundaryPanels.isEmpty()) {
+			// Nothing to push to, every panel fills its own buffer.
+			if (generated > 0) {
+				long rate = generated / exposedPanels;
+				for (SolarPanelBlockEntity panel : panels) {
+					if (panel.isGenerating()) {
+						panel.addEnergy(rate);
+					}
+				}
+			}
+			return;
+		}
+
+		long boundarySpace = 0;
+		for (SolarPanelBlockEntity panel : boundaryPanels) {
+			boundarySpace += panel.getFreeSpace();
+		}
+
+		// Energy stored in the interior panels is output before new energy is stored there
+		long available = generated;
+		if (boundarySpace > generated && interiorHasEnergy) {
+			available += moveInterior(boundarySpace - generated, false);
+		}
+		long leftover = fillBoundaries(available);
+		if (leftover > 0 && interiorHasSpace) {
+			moveInterior(leftover, true);
+		}
+	}
+
+	/**
+	 * Spread the energy evenly over the boundary panels, without going over their capacity.
+	 *
+	 * @return The energy that didn't fit
+	 */
+	private long fillBoundaries(long amount) {
+		int boundaryCount = boundaryPanels.size();
+		for (SolarPanelBlockEntity panel : boundaryPanels) {
+			long share = Math.min(amount / boundaryCount, panel.getFreeSpace());
+			panel.addEnergy(share);
+			amount -= share;
+			boundaryCount--;
+		}
+		// Rounding and full panels can leave some energy, give it to any panel with space
+		for (int i = 0; i < boundaryPanels.size() && amount > 0; i++) {
+			SolarPanelBlockEntity panel = boundaryPanels.get(i);
+			long share = Math.min(amount, panel.getFreeSpace());
+			panel.addEnergy(share);
+			amount -= share;
+		}
+		return amount;
+	}
+
+	/**
+	 * Store energy in or take energy from the interior panels, starting where the last pass stopped.
+	 *
+	 * @param amount The energy to move
+	 * @param store {@code true} to store the energy, {@code false} to take it
+	 * @return The energy that was moved
+	 */
+	private long moveInterior(long amount, boolean store) {
+		long moved = 0;
+		int size = panels.size();
+		for (int i = 0; i < size && moved < amount; i++) {
+			if (interiorCursor >= size) {
+				interiorCursor = 0;
+			}
+			SolarPanelBlockEntity panel = panels.get(interiorCursor);
+			if (!panel.boundary) {
+				long delta = Math.min(amount - moved, store ? panel.getFreeSpace() : panel.getStored());
+				if (delta > 0) {
+					if (store) {
+						panel.addEnergy(delta);
+					} else {
+						panel.useEnergy(delta);
+					}
+					moved += delta;
+				}
+			}
+			if (moved < amount) {
+				interiorCursor++;
+			}
+		}
+
+		if (store) {
+			interiorHasSpace = moved == amount;
+			interiorHasEnergy |= moved > 0;
+		} else {
+			interiorHasEnergy = moved == amount;
+			interiorHasSpace |= moved > 0;
+		}
+		return moved;
+	}
+}
@@ -48,7 +48,9 @@ import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
 import reborncore.common.util.StringUtils;
+import team.reborn.energy.api.EnergyStorage;
 import techreborn.blocks.generator.BlockSolarPanel;
+import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 import techreborn.init.TRContent.SolarPanels;
@@ -60,11 +62,15 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 
 	private boolean generating = false;
 
-	// Range of panel between day/night production; we calculate this only when panel is updated
-	private int dayNightRange = 0;
-
 	private SolarPanels panel;
 
+	// The array this panel generates with, or null if it hasn't joined one yet
+	@Nullable
+	SolarArray array = null;
+	// Whether the panel has an energy consumer next to it, the array only outputs through such panels
+	boolean boundary = false;
+	boolean boundaryUpdateQueued = false;
+
 	public SolarPanelBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.SOLAR_PANEL, pos, state);
 	}
@@ -81,15 +87,13 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 		if (panelBlock instanceof BlockSolarPanel solarPanelBlock) {
 			panel = solarPanelBlock.panelType;
 		}
-
-		dayNightRange = getPanel().generationRateD - getPanel().generationRateN;
 	}
 
 	// Setters/getters that provide boolean interface to underlying generating int; something about
 	// screen auto-sync REQUIRES an integer value (booleans don't get transmitted?!), so resorted to
 	// this ugly approach
 	public boolean isGenerating() { return generating; }
-	private void setIsGenerating(boolean isGenerating) {
+	void setIsGenerating(boolean isGenerating) {
 		Objects.requireNonNull(world, "World may not be null.");
 
 		if (isGenerating != isGenerating()) {
@@ -120,29 +124,65 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 			return 0;
 		}
 
+		return getGenerationRate(getPanel(), getDaylightFactor(world));
+	}
+
+	/**
+	 * @param panel The panel type
+	 * @param daylightFactor The factor returned by {@link #getDaylightFactor(World)}
+	 * @return The generation rate of a panel that can see the sky
+	 */
+	static int getGenerationRate(SolarPanels panel, float daylightFactor) {
+		return (int)Math.ceil(panel.generationRateN + ((panel.generationRateD - panel.generationRateN) * daylightFactor));
+	}
+
+	/**
+	 * @param world The world the panels are in
+	 * @return How far the generation is between night (0) and day (1) production
+	 */
+	static float getDaylightFactor(World world) {
 		float skyAngle = world.getSkyAngle(0);
 
-		// Ok, we are actively generating power, but check for a few conditions that would restrict
-		// the generation to minimal production...
+		// Check for a few conditions that would restrict the generation to minimal production...
 		if (!world.getDimension().hasSkyLight() || // No light source in dimension (e.g. nether or end)
 			(skyAngle > 0.25 && skyAngle < 0.75) || // Light source is below horizon
 			(world.isRaining() || world.isThundering())) { // Weather is present
-			return getPanel().generationRateN;
+			return 0;
 		}
 
 		// At this point, we know a light source is present, and it's clear weather. We need to determine
 		// the level of generation based on % of time through the day, with peak production at noon and
 		// a smooth transition to night production as sun rises/sets
-		float multiplier;
 		if (skyAngle > 0.75) {
 			// Morning to noon
-			multiplier = (0.25f - (1 - skyAngle)) / 0.25f;
+			return (0.25f - (1 - skyAngle)) / 0.25f;
 		} else {
 			// Noon to sunset
-			multiplier = (0.25f - skyAngle) / 0.25f;
+			return (0.25f - skyAngle) / 0.25f;
+		}
+	}
+
+	boolean hasEnergyTarget() {
+		for (Direction side : Direction.values()) {
+			BlockPos neighbour = pos.offset(side);
+			// Panels of an array don't exchange energy
+			if (world.getBlockEntity(neighbour) instanceof SolarPanelBlockEntity) {
+				continue;
+			}
+			if (EnergyStorage.SIDED.find(world, neighbour, side.getOpposite()) != null) {
+				return true;
+			}
 		}
+		return false;
+	}
 
-		return (int)Math.ceil(getPanel().generationRateN + (dayNightRange * multiplier));
+	/**
+	 * Leave the array when the panel is broken, the remaining panels form new arrays.
+	 */
+	public void leaveArray() {
+		if (array != null) {
+			array.invalidate();
+		}
 	}
 
 
@@ -169,9 +209,23 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 			return;
 		}
 
-		// State checking and updating
 		if (world.getTime() % 20 == 0) {
 			checkOverfill = true;
+		}
+
+		if (TechRebornConfig.solarPanelArrays) {
+			if (array == null) {
+				array = SolarArray.join(this);
+			}
+			if (array != null) {
+				// The array checks the sky and generates for all of its panels
+				array.tick(world);
+				return;
+			}
+		}
+
+		// State checking and updating
+		if (world.getTime() % 20 == 0) {
 			updateState();
 		}
 
@@ -179,6 +233,25 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 		addEnergy(getGenerationRate());
 	}
 
+	@Override
+	protected boolean canSleep() {
+		return true;
+	}
+
+	@Override
+	protected boolean isIdle() {
+		// Interior panels of an array have nothing to do, as long as a boundary panel ticks the array
+		return !hasPendingUpdates() && array != null && !boundary && !array.boundaryPanels.isEmpty();
+	}
+
+	@Override
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		super.onNeighborUpdate(neighborPos);
+		if (array != null) {
+			array.queueBoundaryUpdate(this);
+		}
+	}
+
 	@Override
 	public long getBaseMaxPower() {
 		return getPanel().internalCapacity;
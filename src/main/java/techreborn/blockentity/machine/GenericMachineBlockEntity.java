@@ -99,6 +99,21 @@ public abstract class GenericMachineBlockEntity extends PowerAcceptorBlockEntity
 		}
 	}
 
+	@Override
+	protected boolean canSleep() {
+		// Machines with a tank poll it every tick
+		return getTank() == null;
+	}
+
+	@Override
+	protected boolean isIdle() {
+		// Keep ticking while there is a battery to charge from
+		if (energySlot != -1 && !inventory.getStack(energySlot).isEmpty()) {
+			return false;
+		}
+		return super.isIdle();
+	}
+
 	@Override
 	public long getBaseMaxPower() {
 		return maxEnergy;
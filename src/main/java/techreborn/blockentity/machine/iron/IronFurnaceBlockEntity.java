@@ -32,13 +32,12 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.recipe.AbstractCookingRecipe;
 import net.minecraft.recipe.RecipeEntry;
-import net.minecraft.recipe.RecipeType;
 import net.minecraft.recipe.SmeltingRecipe;
-import net.minecraft.recipe.input.SingleStackRecipeInput;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.Nullable;
+import reborncore.common.crafting.SmeltingRecipeIndex;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
@@ -80,12 +79,12 @@ public class IronFurnaceBlockEntity extends AbstractIronMachineBlockEntity imple
 	@Nullable
 	private RecipeEntry<SmeltingRecipe> refreshRecipe(ItemStack stack) {
 		// Check the previous recipe to see if it still applies to the current inv, saves rechecking the whole recipe list
-		if (lastRecipe != null && lastRecipe.value().matches(new SingleStackRecipeInput(stack), world)) {
+		if (lastRecipe != null && SmeltingRecipeIndex.get(world).matches(world, lastRecipe.value(), stack)) {
 			return lastRecipe;
 		} else {
 			// If the previous recipe does not apply anymore, reset the progress
 			progress = 0;
-			RecipeEntry<SmeltingRecipe> matchingRecipe = world.getRecipeManager().getFirstMatch(RecipeType.SMELTING, new SingleStackRecipeInput(stack), world).orElse(null);
+			RecipeEntry<SmeltingRecipe> matchingRecipe = SmeltingRecipeIndex.get(world).getFirstMatch(world, stack);
 			if (matchingRecipe != null) {
 				lastRecipe = matchingRecipe;
 			}
@@ -114,7 +113,7 @@ public class IronFurnaceBlockEntity extends AbstractIronMachineBlockEntity imple
 	}
 
 	private float getExperienceFor() {
-		Optional<SmeltingRecipe> recipe = world.getRecipeManager().getFirstMatch(RecipeType.SMELTING, new SingleStackRecipeInput(inventory.getStack(0)), world).map(RecipeEntry::value);
+		Optional<SmeltingRecipe> recipe = Optional.ofNullable(SmeltingRecipeIndex.get(world).getFirstMatch(world, inventory.getStack(0))).map(RecipeEntry::value);
 		return recipe.map(AbstractCookingRecipe::getExperience).orElse(0F);
 	}
 
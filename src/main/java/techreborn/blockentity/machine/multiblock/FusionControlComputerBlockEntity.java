@@ -101,6 +101,7 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	public void changeSize(int sizeDelta) {
 		int newSize = size + sizeDelta;
 		this.size = Math.max(6, Math.min(TechRebornConfig.fusionControlComputerMaxCoilSize, newSize));
+		invalidateShape();
 	}
 
 	/**
@@ -378,7 +379,9 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	@Override
 	public void writeMultiblock(MultiblockWriter writer) {
 		BlockState coil = TRContent.Machine.FUSION_COIL.block.getDefaultState();
-		Torus.getOriginPositions(size).forEach(pos -> writer.add(pos.getX(), pos.getY(), pos.getZ(), coil));
+		for (long pos : Torus.getPackedPositions(size)) {
+			writer.add(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos), coil);
+		}
 	}
 
 	@Override
@@ -67,6 +67,10 @@ public class BlockBreakerProcessor extends BlockBreakerNbt implements BlockProce
 	private final int baseBreakTime;
 	private final int baseCostToBreak;
 
+	// The drop projected for the block in front, the loot table is only evaluated again when the block changes
+	private BlockState projectedDropState = null;
+	private ItemStack projectedDrop = null;
+
 	public BlockBreakerProcessor(BlockProcessable processable, int outputSlot, int fakeInputSlot, int baseBreakTime, int baseCostToBreak) {
 		this.processable = processable;
 
@@ -97,21 +101,6 @@ public class BlockBreakerProcessor extends BlockBreakerNbt implements BlockProce
 
 		Item currentBreakingItem = processable.getInventory().getStack(fakeInputSlot).getItem();
 		ItemStack item = blockInFront.getBlock().asItem().getDefaultStack();
-		final List<ItemStack> blockDrops;
-
-		if (world instanceof ServerWorld serverWorld) {
-			LootContextParameterSet.Builder builder = new LootContextParameterSet.Builder(serverWorld)
-				.add(LootContextParameters.ORIGIN, Vec3d.ofCenter(positionInFront))
-				.add(LootContextParameters.TOOL, TRContent.Machine.BLOCK_BREAKER.getStack());
-			blockDrops = blockInFront.getDroppedStacks(builder);
-		} else {
-			blockDrops = Collections.singletonList(item);
-		}
-
-		ItemStack blockDrop = blockDrops.isEmpty() ? null : blockDrops.get(0);
-		if (blockDrop != null) {
-			blockDrop.setCount(1);
-		}
 
 		ItemStack fakeItem = item.copy();
 
@@ -129,19 +118,54 @@ public class BlockBreakerProcessor extends BlockBreakerNbt implements BlockProce
 
 		if (!ensureBlockNotReplaced(currentBreakingItem, item)) return status;
 
-		if (!ensureBlockFitInOutput(outputItemStack, blockDrop)) return status;
+		if (!ensureBlockFitInOutput(outputItemStack, getProjectedDrop(world, positionInFront, blockInFront))) return status;
 
 		if (!increaseBreakTime(world, positionInFront)) return status;
 
 		BlockProcessorUtils.playSound(processable, currentBreakTime);
 
-		breakBlock(world, positionInFront, outputItemStack, blockDrop);
+		if (currentBreakTime >= breakTime) {
+			// Random drops can differ from the projection, so the real loot is evaluated when breaking
+			ItemStack blockDrop = getBlockDrop(world, positionInFront, blockInFront);
+			projectedDropState = null;
+
+			if (!ensureBlockFitInOutput(outputItemStack, blockDrop)) return status;
+
+			breakBlock(world, positionInFront, outputItemStack, blockDrop);
+		}
 
 		status = BlockBreakerStatus.PROCESSING;
 
 		return status;
 	}
 
+	private ItemStack getProjectedDrop(World world, BlockPos positionInFront, BlockState blockInFront) {
+		if (blockInFront != projectedDropState) {
+			projectedDrop = getBlockDrop(world, positionInFront, blockInFront);
+			projectedDropState = blockInFront;
+		}
+		return projectedDrop;
+	}
+
+	private ItemStack getBlockDrop(World world, BlockPos positionInFront, BlockState blockInFront) {
+		final List<ItemStack> blockDrops;
+
+		if (world instanceof ServerWorld serverWorld) {
+			LootContextParameterSet.Builder builder = new LootContextParameterSet.Builder(serverWorld)
+				.add(LootContextParameters.ORIGIN, Vec3d.ofCenter(positionInFront))
+				.add(LootContextParameters.TOOL, TRContent.Machine.BLOCK_BREAKER.getStack());
+			blockDrops = blockInFront.getDroppedStacks(builder);
+		} else {
+			blockDrops = Collections.singletonList(blockInFront.getBlock().asItem().getDefaultStack());
+		}
+
+		ItemStack blockDrop = blockDrops.isEmpty() ? null : blockDrops.get(0);
+		if (blockDrop != null) {
+			blockDrop.setCount(1);
+		}
+		return blockDrop;
+	}
+
 	private boolean ensureRedstoneEnabled() {
 		if (!processable.isActive(RedstoneConfiguration.Element.RECIPE_PROCESSING)) {
 			return breakControlFlow(BlockBreakerStatus.IDLE_PAUSED);
@@ -229,21 +253,18 @@ public class BlockBreakerProcessor extends BlockBreakerNbt implements BlockProce
 	}
 
 	private void breakBlock(World world, BlockPos positionInFront, ItemStack currentStack, ItemStack blockDrop) {
-		if (currentBreakTime >= breakTime) {
+		world.breakBlock(positionInFront, false);
 
-			world.breakBlock(positionInFront, false);
+		resetProcessing(0);
 
-			resetProcessing(0);
-
-			if (blockDrop == null || blockDrop.getCount() == 0) {
-				return;
-			}
-			if (currentStack.isOf(ItemStack.EMPTY.getItem())) {
-				processable.getInventory().setStack(outputSlot, blockDrop);
-			} else {
-				int currentCount = currentStack.getCount();
-				currentStack.setCount(currentCount + blockDrop.getCount());
-			}
+		if (blockDrop == null || blockDrop.getCount() == 0) {
+			return;
+		}
+		if (currentStack.isOf(ItemStack.EMPTY.getItem())) {
+			processable.getInventory().setStack(outputSlot, blockDrop);
+		} else {
+			int currentCount = currentStack.getCount();
+			currentStack.setCount(currentCount + blockDrop.getCount());
 		}
 	}
 
@@ -0,0 +1,202 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.machine.tier1;
+
+import net.minecraft.component.ComponentChanges;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.CraftingRecipe;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.recipe.RecipeType;
+import net.minecraft.recipe.input.CraftingRecipeInput;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.crafting.ReloadingRecipeCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the recipe, result and remainder of a crafting grid layout once, shared by all auto crafting tables.
+ * <p>
+ * A layout is the item and components of each grid slot, the stack sizes don't change which recipe matches.
+ * The cache is cleared on reload through a {@link ReloadingRecipeCache}.
+ */
+final class AutoCraftingRecipeCache {
+	private static final int MAX_SIZE = 4096;
+
+	private static final ReloadingRecipeCache<CraftingRecipeInput, CraftingRecipe, AutoCraftingRecipeCache> CACHE = new ReloadingRecipeCache<>(RecipeType.CRAFTING, recipes -> new AutoCraftingRecipeCache());
+
+	private final Map<Layout, Craft> crafts = new LinkedHashMap<>(16, 0.75F, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Layout, Craft> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private AutoCraftingRecipeCache() {
+	}
+
+	static AutoCraftingRecipeCache get(World world) {
+		return CACHE.get(world);
+	}
+
+	/**
+	 * @param world The world the grid is in
+	 * @param layout The layout of the grid
+	 * @param inventory The inventory holding the grid, in the first {@link AutoCraftingTableBlockEntity#CRAFTING_AREA} slots
+	 * @return What the grid crafts, {@link Craft#recipe()} is null when no recipe matches
+	 */
+	Craft resolve(World world, Layout layout, Inventory inventory) {
+		Craft craft = crafts.get(layout);
+		if (craft != null) {
+			return craft;
+		}
+
+		CraftingRecipeInput input = createInput(inventory);
+		CraftingRecipe recipe = world.getRecipeManager().getFirstMatch(RecipeType.CRAFTING, input, world).map(RecipeEntry::value).orElse(null);
+
+		if (recipe == null) {
+			craft = Craft.NONE;
+		} else {
+			craft = new Craft(recipe, recipe.craft(input, world.getRegistryManager()), mergeRemainders(recipe.getRemainder(input)), !recipe.isIgnoredInRecipeBook());
+		}
+
+		// Special recipes can depend on more than the layout, so they are not cached, see matches
+		if (craft.cacheable()) {
+			crafts.put(layout, craft);
+		}
+		return craft;
+	}
+
+	/**
+	 * Check if a special recipe resolved for the same layout still matches the grid, which is much cheaper than
+	 * resolving the grid again.
+	 *
+	 * @param world The world the grid is in
+	 * @param craft A craft returned by {@link #resolve(World, Layout, Inventory)} for the current layout
+	 * @param inventory The inventory holding the grid
+	 * @return If the recipe of the craft still matches
+	 */
+	boolean matches(World world, Craft craft, Inventory inventory) {
+		return craft.recipe() != null && craft.recipe().matches(createInput(inventory), world);
+	}
+
+	private static CraftingRecipeInput createInput(Inventory inventory) {
+		List<ItemStack> stacks = new ArrayList<>(AutoCraftingTableBlockEntity.CRAFTING_AREA);
+		for (int i = 0; i < AutoCraftingTableBlockEntity.CRAFTING_AREA; i++) {
+			stacks.add(inventory.getStack(i).copyWithCount(1));
+		}
+		return CraftingRecipeInput.create(AutoCraftingTableBlockEntity.CRAFTING_WIDTH, AutoCraftingTableBlockEntity.CRAFTING_HEIGHT, stacks);
+	}
+
+	/**
+	 * Merge the remainders into a single stack, as they all have to fit in the extra output slot.
+	 *
+	 * @return The merged stack, or null if there are several kinds of remainders
+	 */
+	@Nullable
+	private static ItemStack mergeRemainders(List<ItemStack> remainders) {
+		ItemStack merged = ItemStack.EMPTY;
+		for (ItemStack remainder : remainders) {
+			if (remainder.isEmpty()) continue;
+
+			if (merged.isEmpty()) {
+				merged = remainder.copy();
+			} else if (ItemStack.areItemsAndComponentsEqual(merged, remainder)) {
+				merged.increment(remainder.getCount());
+			} else {
+				return null;
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * The items and components of the crafting grid.
+	 */
+	static final class Layout {
+		private final Item[] items;
+		private final ComponentChanges[] components;
+		private final int hash;
+
+		private Layout(Item[] items, ComponentChanges[] components) {
+			this.items = items;
+			this.components = components;
+			this.hash = 31 * Arrays.hashCode(items) + Arrays.hashCode(components);
+		}
+
+		/**
+		 * @return The layout of the grid, or null if the grid is empty
+		 */
+		@Nullable
+		static Layout of(Inventory inventory) {
+			Item[] items = new Item[AutoCraftingTableBlockEntity.CRAFTING_AREA];
+			ComponentChanges[] components = new ComponentChanges[AutoCraftingTableBlockEntity.CRAFTING_AREA];
+			boolean empty = true;
+
+			for (int i = 0; i < AutoCraftingTableBlockEntity.CRAFTING_AREA; i++) {
+				ItemStack stack = inventory.getStack(i);
+				if (stack.isEmpty()) {
+					items[i] = null;
+					components[i] = ComponentChanges.EMPTY;
+				} else {
+					items[i] = stack.getItem();
+					components[i] = stack.getComponentChanges();
+					empty = false;
+				}
+			}
+
+			return empty ? null : new Layout(items, components);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			return o instanceof Layout layout && hash == layout.hash && Arrays.equals(items, layout.items) && Arrays.equals(components, layout.components);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * What a layout crafts. The stacks are shared and must be copied before use.
+	 *
+	 * @param recipe The matching recipe, or null
+	 * @param result The output of a single craft
+	 * @param remainder The remainders of a single craft merged into one stack, or null if they don't fit in one slot
+	 * @param cacheable If the craft only depends on the layout
+	 */
+	record Craft(@Nullable CraftingRecipe recipe, ItemStack result, @Nullable ItemStack remainder, boolean cacheable) {
+		static final Craft NONE = new Craft(null, ItemStack.EMPTY, ItemStack.EMPTY, true);
+	}
+}
@@ -26,20 +26,13 @@ package techreborn.blockentity.machine.tier1;
 
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.inventory.CraftingInventory;
-import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.recipe.CraftingRecipe;
 import net.minecraft.recipe.Ingredient;
-import net.minecraft.recipe.RecipeEntry;
-import net.minecraft.recipe.RecipeType;
-import net.minecraft.recipe.input.CraftingRecipeInput;
 import net.minecraft.registry.RegistryWrapper;
-import net.minecraft.screen.ScreenHandler;
 import net.minecraft.sound.SoundCategory;
-import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
@@ -81,10 +74,9 @@ public class AutoCraftingTableBlockEntity extends PowerAcceptorBlockEntity
 	public final int euTick = 10;
 	public int balanceSlot = 0;
 
-	CraftingInventory inventoryCrafting = null;
-	CraftingRecipe lastRecipe = null;
-
-	Item[] layoutInv = new Item[CRAFTING_AREA];
+	private AutoCraftingRecipeCache recipeCache = null;
+	private AutoCraftingRecipeCache.Layout lastLayout = null;
+	private AutoCraftingRecipeCache.Craft lastCraft = null;
 
 	public boolean locked = false;
 
@@ -94,193 +86,122 @@ public class AutoCraftingTableBlockEntity extends PowerAcceptorBlockEntity
 
 	@Nullable
 	public CraftingRecipe getCurrentRecipe() {
-		if (world == null) return null;
-		CraftingInventory craftingInventory = getCraftingInventory();
-		if (craftingInventory.isEmpty()) return null;
-
-		if (lastRecipe != null && lastRecipe.matches(getRecipeInput(), world)) return lastRecipe;
-
-		Item[] currentInvLayout = getCraftingLayout(craftingInventory);
-		if (Arrays.equals(layoutInv, currentInvLayout)) return null;
-
-		layoutInv = currentInvLayout;
-
-		Optional<CraftingRecipe> testRecipe = world.getRecipeManager().getFirstMatch(RecipeType.CRAFTING, getRecipeInput(), world).map(RecipeEntry::value);
-		if (testRecipe.isPresent()) {
-			lastRecipe = testRecipe.get();
-			return lastRecipe;
-		}
-
-		return null;
+		AutoCraftingRecipeCache.Craft craft = getCurrentCraft();
+		return craft == null ? null : craft.recipe();
 	}
 
-	private Item[] getCraftingLayout(CraftingInventory craftingInventory) {
-		Item[] layout = new Item[CRAFTING_AREA];
-		for (int i = 0; i < CRAFTING_AREA; i++) {
-			layout[i] = craftingInventory.getStack(i).getItem();
+	@Nullable
+	private AutoCraftingRecipeCache.Craft getCurrentCraft() {
+		if (world == null) return null;
+		AutoCraftingRecipeCache.Layout layout = AutoCraftingRecipeCache.Layout.of(inventory);
+		if (layout == null) return null;
+
+		AutoCraftingRecipeCache cache = AutoCraftingRecipeCache.get(world);
+		// Only resolve the grid again when its layout changes, the stack sizes don't matter.
+		// Special recipes are checked again first, and only resolved again when they no longer match.
+		if (cache != recipeCache || lastCraft == null || !layout.equals(lastLayout)
+			|| (!lastCraft.cacheable() && !cache.matches(world, lastCraft, inventory))) {
+			recipeCache = cache;
+			lastLayout = layout;
+			lastCraft = cache.resolve(world, layout, inventory);
 		}
-		return layout;
+		return lastCraft;
 	}
 
-	private CraftingInventory getCraftingInventory() {
-		if (inventoryCrafting == null) {
-			inventoryCrafting = new CraftingInventory(new ScreenHandler(null, -1) {
-				@Override
-				public ItemStack quickMove(PlayerEntity player, int index) {
-					return ItemStack.EMPTY;
-				}
-
-				@Override
-				public boolean canUse(PlayerEntity playerIn) {
-					return false;
-				}
-			}, CRAFTING_WIDTH, CRAFTING_HEIGHT);
-		}
+	/**
+	 * Check if we have inputs and space for outputs.
+	 *
+	 * @param craft The craft of the current layout
+	 * @param limit The maximum number of crafts
+	 * @return How many times the craft can be made, up to the limit
+	 */
+	private int getCraftCount(AutoCraftingRecipeCache.Craft craft, int limit) {
+		if (craft.recipe() == null || craft.remainder() == null) return 0;
+
+		int count = limit;
 		for (int i = 0; i < CRAFTING_AREA; i++) {
-			inventoryCrafting.setStack(i, inventory.getStack(i));
-		}
-		return inventoryCrafting;
-	}
-
-	// Check if we have recipe, inputs and space for outputs
-	private boolean canMake(CraftingRecipe recipe) {
-		if (world == null) return false;
-		if (recipe == null) return false;
+			ItemStack stack = inventory.getStack(i);
+			if (stack.isEmpty()) continue;
 
-		CraftingInventory crafting = getCraftingInventory();
-		if (crafting.isEmpty()) return false;
-
-		// Don't allow recipe to change (Keep at least one of each slot stocked, assuming it's actually a recipe)
-		if (locked) {
-			for (int i = 0; i < CRAFTING_AREA; i++) {
-				if (crafting.getStack(i).getCount() == 1) {
-					return false;
-				}
-			}
+			// Don't allow recipe to change (Keep at least one of each slot stocked, assuming it's actually a recipe)
+			count = Math.min(count, locked ? stack.getCount() - 1 : stack.getCount());
 		}
 
-		if (!recipe.matches(getRecipeInput(), world)) return false;
-
-		if (!hasOutputSpace(recipe.getResult(world.getRegistryManager()), OUTPUT_SLOT)) return false;
-
-		DefaultedList<ItemStack> remainingStacks = recipe.getRemainder(getRecipeInput());
-
-		// Need to check whole list in case of several different reminders
-		boolean canFitReminder = true;
-		ItemStack recipeReminder = ItemStack.EMPTY;
-		for (ItemStack reminderStack : remainingStacks) {
-			// No crafting reminder
-			if (reminderStack.isEmpty()) continue;
-
-			if (!recipeReminder.isEmpty() && !ItemUtils.isItemEqual(recipeReminder, reminderStack, true, false)){
-				// We've got different reminder, excluding case of no reminder from current ingredient
-				canFitReminder = false;
-				break;
-			}
-
-			// Create a copy to avoid changes of original ItemStack
-			recipeReminder = reminderStack.copy();
-
-			recipeReminder.setCount((int) remainingStacks.stream().filter(reminder -> ItemUtils.isItemEqual(reminder, reminderStack, true, false)).count());
-			if (!hasOutputSpace(recipeReminder, EXTRA_OUTPUT_SLOT)) {
-				canFitReminder = false;
-				break;
-			}
+		count = Math.min(count, getOutputSpace(craft.result(), OUTPUT_SLOT));
+		if (!craft.remainder().isEmpty()) {
+			count = Math.min(count, getOutputSpace(craft.remainder(), EXTRA_OUTPUT_SLOT));
 		}
 
-		return canFitReminder;
+		return Math.max(count, 0);
 	}
 
-	private boolean hasOutputSpace(ItemStack output, int slot) {
+	/**
+	 * @return How many times the output fits in the slot
+	 */
+	private int getOutputSpace(ItemStack output, int slot) {
+		if (output.isEmpty()) {
+			return 0;
+		}
 		ItemStack stack = inventory.getStack(slot);
 		if (stack.isEmpty()) {
-			return true;
+			return output.getMaxCount() / output.getCount();
 		}
 		if (ItemUtils.isItemEqual(stack, output, true, true)) {
-			return stack.getMaxCount() >= stack.getCount() + output.getCount();
+			return (stack.getMaxCount() - stack.getCount()) / output.getCount();
 		}
-		return false;
+		return 0;
 	}
 
-	private boolean make(CraftingRecipe recipe) {
-		if (recipe == null || !canMake(recipe)) {
+	/**
+	 * Make as many crafts as the batch size, inputs, output space and stored energy allow.
+	 * The grid matched the recipe with every non-empty slot, so each craft takes one item from each of them.
+	 * The progress paid for the first craft, every further craft uses the energy of a full operation.
+	 */
+	private boolean make(AutoCraftingRecipeCache.Craft craft) {
+		int crafts = getCraftCount(craft, Math.max(TechRebornConfig.autoCraftingTableBatchSize, 1));
+		if (crafts == 0) {
 			return false;
 		}
-		DefaultedList<Ingredient> ingredients = recipe.getIngredients();
-		// each slot can only be used once because in canMake we only checked if decrement by 1 still retains the recipe
-		// otherwise recipes can break when an ingredient is used multiple times
-		boolean[] slotUsed = new boolean[CRAFTING_AREA];
-		for (int i = 0; i < recipe.getIngredients().size(); i++) {
-			Ingredient ingredient = ingredients.get(i);
-			// Looks for the best slot to take it from
-			ItemStack bestSlot = inventory.getStack(i);
-			if (ingredient.test(bestSlot) && !slotUsed[i]) {
-				slotUsed[i] = true;
-				ItemStack remainderStack = getRemainderItem(bestSlot);
-				bestSlot.decrement(1);
-				if (!remainderStack.isEmpty()) {
-					moveExtraOutput(remainderStack);
-				}
+		long craftEnergy = (long) euTick * maxProgress;
+		if (crafts > 1) {
+			crafts = (int) Math.min(crafts, 1 + getStored() / craftEnergy);
+			useEnergy(craftEnergy * (crafts - 1));
+		}
 
-			} else {
-				// check all slots in search of the ingredient
-				for (int j = 0; j < CRAFTING_AREA; j++) {
-					ItemStack stack = inventory.getStack(j);
-					if (ingredient.test(stack) && !slotUsed[j]) {
-						slotUsed[j] = true;
-						ItemStack remainderStack = getRemainderItem(stack);
-						stack.decrement(1);
-						if (!remainderStack.isEmpty()) {
-							moveExtraOutput(remainderStack);
-						}
-					}
-				}
+		for (int i = 0; i < CRAFTING_AREA; i++) {
+			ItemStack stack = inventory.getStack(i);
+			if (!stack.isEmpty()) {
+				stack.decrement(crafts);
 			}
 		}
-		ItemStack output = inventory.getStack(OUTPUT_SLOT);
-		ItemStack outputStack = recipe.craft(getRecipeInput(), world.getRegistryManager());
-		if (output.isEmpty()) {
-			inventory.setStack(OUTPUT_SLOT, outputStack.copy());
-		} else {
-			output.increment(recipe.getResult(world.getRegistryManager()).getCount());
+		addOutput(craft.result(), crafts, OUTPUT_SLOT);
+		if (!craft.remainder().isEmpty()) {
+			addOutput(craft.remainder(), crafts, EXTRA_OUTPUT_SLOT);
 		}
+		inventory.setHashChanged();
 		return true;
 	}
 
-	private void moveExtraOutput(ItemStack stack) {
-		ItemStack currentExtraOutput = inventory.getStack(EXTRA_OUTPUT_SLOT);
-		if (currentExtraOutput.isEmpty()) {
-			inventory.setStack(EXTRA_OUTPUT_SLOT, stack.copy());
+	private void addOutput(ItemStack output, int crafts, int slot) {
+		ItemStack current = inventory.getStack(slot);
+		if (current.isEmpty()) {
+			inventory.setStack(slot, output.copyWithCount(output.getCount() * crafts));
 		} else {
-			currentExtraOutput.increment(stack.getCount());
+			current.increment(output.getCount() * crafts);
 		}
 	}
 
-	private ItemStack getRemainderItem(ItemStack stack) {
-		if (stack.getItem().hasRecipeRemainder()) {
-			return new ItemStack(stack.getItem().getRecipeRemainder());
-		}
-
-		return ItemStack.EMPTY;
-	}
-
-	private Optional<CraftingInventory> balanceRecipe(CraftingInventory craftCache) {
-		if (world == null || world.isClient) return Optional.empty();
-		if (craftCache.isEmpty()) return Optional.empty();
-
-		CraftingRecipe currentRecipe = getCurrentRecipe();
-		if (currentRecipe == null) {
-			return Optional.empty();
-		}
+	private void balanceRecipe(CraftingRecipe currentRecipe) {
+		if (world == null || world.isClient) return;
 
 		balanceSlot++;
-		if (balanceSlot > craftCache.size()) {
+		if (balanceSlot > CRAFTING_AREA) {
 			balanceSlot = 0;
 		}
 		// Find the best slot for each item in a recipe, and move it if needed
 		ItemStack sourceStack = inventory.getStack(balanceSlot);
 		if (sourceStack.isEmpty()) {
-			return Optional.empty();
+			return;
 		}
 		List<Integer> possibleSlots = new ArrayList<>();
 		for (int s = 0; s < currentRecipe.getIngredients().size(); s++) {
@@ -332,10 +253,10 @@ public class AutoCraftingTableBlockEntity extends PowerAcceptorBlockEntity
 				}
 			}
 			if (!needsBalance) {
-				return Optional.empty();
+				return;
 			}
 		} else {
-			return Optional.empty();
+			return;
 		}
 
 		//Slot, count
@@ -355,13 +276,11 @@ public class AutoCraftingTableBlockEntity extends PowerAcceptorBlockEntity
 			|| bestSlot.getRight() == sourceStack.getCount()
 			|| inventory.getStack(bestSlot.getLeft()).isEmpty()
 			|| !ItemUtils.isItemEqual(sourceStack, inventory.getStack(bestSlot.getLeft()), true, true)) {
-			return Optional.empty();
+			return;
 		}
 		sourceStack.decrement(1);
 		inventory.getStack(bestSlot.getLeft()).increment(1);
 		inventory.setHashChanged();
-
-		return Optional.of(getCraftingInventory());
 	}
 
 	// PowerAcceptorBlockEntity
@@ -371,21 +290,21 @@ public class AutoCraftingTableBlockEntity extends PowerAcceptorBlockEntity
 		if (world == null || world.isClient) {
 			return;
 		}
-		CraftingRecipe recipe = getCurrentRecipe();
-		if (recipe == null) {
+		AutoCraftingRecipeCache.Craft craft = getCurrentCraft();
+		if (craft == null || craft.recipe() == null) {
 			progress = 0;
 			return;
 		}
 
-		Optional<CraftingInventory> balanceResult = balanceRecipe(getCraftingInventory());
-		balanceResult.ifPresent(craftingInventory -> inventoryCrafting = craftingInventory);
+		// Balancing only moves items between slots holding the same item, so the layout and craft stay the same
+		balanceRecipe(craft.recipe());
 
 		if (progress >= maxProgress) {
-			if (make(recipe)) {
+			if (make(craft)) {
 				progress = 0;
 			}
 		} else {
-			if (canMake(recipe)) {
+			if (getCraftCount(craft, 1) > 0) {
 				if (getStored() > euTick) {
 					progress++;
 					if (progress == 1) {
@@ -493,13 +412,4 @@ public class AutoCraftingTableBlockEntity extends PowerAcceptorBlockEntity
 	public void setLockedInt(int lockedInt) {
 		locked = lockedInt == 1;
 	}
-
-	private CraftingRecipeInput getRecipeInput() {
-		CraftingInventory craftingInventory = getCraftingInventory();
-		List<ItemStack> stacks = new ArrayList<>(craftingInventory.size());
-		for (int i = 0; i < craftingInventory.size(); i++) {
-			stacks.add(craftingInventory.getStack(i));
-		}
-		return CraftingRecipeInput.create(craftingInventory.getWidth(), craftingInventory.getHeight(), stacks);
-	}
 }
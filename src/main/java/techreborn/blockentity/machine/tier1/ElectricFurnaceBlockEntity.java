@@ -30,9 +30,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.recipe.RecipeEntry;
-import net.minecraft.recipe.RecipeType;
 import net.minecraft.recipe.SmeltingRecipe;
-import net.minecraft.recipe.input.SingleStackRecipeInput;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
@@ -41,6 +39,7 @@ import reborncore.api.IToolDrop;
 import reborncore.api.blockentity.InventoryProvider;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blocks.BlockMachineBase;
+import reborncore.common.crafting.SmeltingRecipeIndex;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.recipes.RecipeCrafter;
 import reborncore.common.screen.BuiltScreenHandler;
@@ -85,7 +84,7 @@ public class ElectricFurnaceBlockEntity extends PowerAcceptorBlockEntity
 			resetCrafter();
 			return;
 		}
-		Optional<SmeltingRecipe> testRecipe = world.getRecipeManager().getFirstMatch(RecipeType.SMELTING, new SingleStackRecipeInput(stack), world).map(RecipeEntry::value);
+		Optional<SmeltingRecipe> testRecipe = Optional.ofNullable(SmeltingRecipeIndex.get(world).getFirstMatch(world, stack)).map(RecipeEntry::value);
 		if (!testRecipe.isPresent()) {
 			resetCrafter();
 			return;
@@ -152,7 +151,7 @@ public class ElectricFurnaceBlockEntity extends PowerAcceptorBlockEntity
 			return false;
 		}
 
-		return recipe.matches(new SingleStackRecipeInput(stack), world);
+		return SmeltingRecipeIndex.get(world).matches(world, recipe, stack);
 	}
 
 	private void craftRecipe(SmeltingRecipe recipe) {
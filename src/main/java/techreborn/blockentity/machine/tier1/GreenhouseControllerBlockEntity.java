@@ -24,6 +24,10 @@
 
 package techreborn.blockentity.machine.tier1;
 
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.block.*;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
@@ -39,6 +43,7 @@ import reborncore.api.IToolDrop;
 import reborncore.api.blockentity.InventoryProvider;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blockentity.MultiblockWriter;
+import reborncore.common.misc.world.ChunkEventListeners;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
@@ -51,6 +56,7 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -61,9 +67,18 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 	private BlockPos multiblockCenter;
 	private int ticksToNextMultiblockCheck = 0;
 	private boolean growthBoost = false;
-	private int workingIndex = 0;
 	// number of blocks from center
 	private final int range = 4;
+	// number of blocks above the crop layer that can belong to a crop, bamboo is the tallest
+	private static final int COLUMN_HEIGHT = 16;
+
+	// The crop columns are tracked by the position of their bottom block, they are updated from block change notifications
+	// Columns that changed since they were last looked at
+	private final LongSet dirtyColumns = new LongOpenHashSet();
+	// Columns with a plant that the growth boost applies to, in round-robin order
+	private final LongLinkedOpenHashSet plantColumns = new LongLinkedOpenHashSet();
+	// Columns with something to harvest
+	private final LongLinkedOpenHashSet readyColumns = new LongLinkedOpenHashSet();
 
 
 	public GreenhouseControllerBlockEntity(BlockPos pos, BlockState state) {
@@ -75,24 +90,15 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 			return;
 		}
 
-		int size = range * 2 + 1;
-		int offsetX = workingIndex % size;
-		int offsetZ = workingIndex / size;
-		BlockPos corner = multiblockCenter.add(-range, 0, -range);
-		BlockPos blockPos = corner.add(offsetX, 0, offsetZ);
-
-		workingIndex = (workingIndex + 1) % (size * size);
-		BlockState blockState = world.getBlockState(blockPos);
-		Block block = blockState.getBlock();
+		if (growthBoost && !plantColumns.isEmpty()) {
+			long column = plantColumns.removeFirstLong();
+			plantColumns.add(column);
 
-		if (growthBoost) {
-			if (block instanceof Fertilizable || block instanceof PlantBlock
-					|| block instanceof SugarCaneBlock	|| block instanceof CactusBlock
-			) {
-				if (getStored() > TechRebornConfig.greenhouseControllerEnergyPerBonemeal) {
-					useEnergy(TechRebornConfig.greenhouseControllerEnergyPerBonemeal);
-					blockState.randomTick((ServerWorld) world, blockPos, world.random);
-				}
+			BlockPos blockPos = BlockPos.fromLong(column);
+			BlockState blockState = world.getBlockState(blockPos);
+			if (isBoostable(blockState.getBlock()) && getStored() > TechRebornConfig.greenhouseControllerEnergyPerBonemeal) {
+				useEnergy(TechRebornConfig.greenhouseControllerEnergyPerBonemeal);
+				blockState.randomTick((ServerWorld) world, blockPos, world.random);
 			}
 		}
 
@@ -100,6 +106,20 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 			return;
 		}
 
+		if (readyColumns.isEmpty()) {
+			return;
+		}
+
+		long column = readyColumns.removeFirstLong();
+		harvestColumn(BlockPos.fromLong(column));
+		// Look at the column again, in case nothing could be harvested because the inventory is full
+		dirtyColumns.add(column);
+	}
+
+	private void harvestColumn(BlockPos blockPos) {
+		BlockState blockState = world.getBlockState(blockPos);
+		Block block = blockState.getBlock();
+
 		if (block instanceof CropBlock cropBlock) {
 			processAgedCrop(blockState, blockPos, cropBlock.getAgeProperty(), ((CropBlock) block).getMaxAge(), 0);
 		} else if (block instanceof NetherWartBlock) {
@@ -147,6 +167,92 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		}
 	}
 
+	private static boolean isBoostable(Block block) {
+		return block instanceof Fertilizable || block instanceof PlantBlock
+				|| block instanceof SugarCaneBlock || block instanceof CactusBlock;
+	}
+
+	/**
+	 * Checks if {@link #harvestColumn(BlockPos)} would find something to harvest in the column.
+	 */
+	private boolean isReady(BlockPos blockPos, BlockState blockState) {
+		Block block = blockState.getBlock();
+
+		if (block instanceof CropBlock cropBlock) {
+			return blockState.get(cropBlock.getAgeProperty()) >= cropBlock.getMaxAge();
+		} else if (block instanceof NetherWartBlock) {
+			return blockState.get(NetherWartBlock.AGE) >= 3;
+		} else if (block instanceof SweetBerryBushBlock) {
+			return blockState.get(SweetBerryBushBlock.AGE) >= 3;
+		} else if (block instanceof CocoaBlock) {
+			return blockState.get(CocoaBlock.AGE) >= 2;
+		} else if (block instanceof PumpkinBlock) {
+			return true;
+		} else if (block instanceof SugarCaneBlock
+				|| block instanceof CactusBlock
+				|| block instanceof BambooBlock
+		) {
+			return world.getBlockState(blockPos.up()).getBlock() == block;
+		} else if (block instanceof BlockRubberLog) {
+			for (int y = 0; (blockState = world.getBlockState(blockPos.up(y))).getBlock() == block && y < 10; y++) {
+				if (blockState.get(BlockRubberLog.HAS_SAP)) {
+					return true;
+				}
+			}
+		} else if (block instanceof CaveVines){
+			for (int y=0; (blockState = world.getBlockState(blockPos.up(y))).getBlock() instanceof CaveVines; y++){
+				if (blockState.get(Properties.BERRIES)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Re-checks the columns that changed since the last work cycles.
+	 */
+	private void updateColumns() {
+		if (dirtyColumns.isEmpty()) {
+			return;
+		}
+
+		for (LongIterator iterator = dirtyColumns.iterator(); iterator.hasNext(); ) {
+			long column = iterator.nextLong();
+			BlockPos blockPos = BlockPos.fromLong(column);
+			BlockState blockState = world.getBlockState(blockPos);
+
+			if (isBoostable(blockState.getBlock())) {
+				plantColumns.add(column);
+			} else {
+				plantColumns.remove(column);
+			}
+			if (isReady(blockPos, blockState)) {
+				readyColumns.add(column);
+			} else {
+				readyColumns.remove(column);
+			}
+		}
+		dirtyColumns.clear();
+	}
+
+	private BlockPos getCropCorner() {
+		return multiblockCenter.add(-range, 0, -range);
+	}
+
+	/**
+	 * Marks every column of the crop area as changed, so that the index is rebuilt.
+	 */
+	private void markAllColumnsDirty() {
+		int size = range * 2 + 1;
+		BlockPos corner = getCropCorner();
+		for (int x = 0; x < size; x++) {
+			for (int z = 0; z < size; z++) {
+				dirtyColumns.add(BlockPos.asLong(corner.getX() + x, corner.getY(), corner.getZ() + z));
+			}
+		}
+	}
+
 	private void processAgedCrop(BlockState blockState, BlockPos blockPos, IntProperty ageProperty, int maxAge, int newAge) {
 		if (world == null) {
 			return;
@@ -221,6 +327,7 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		}
 
 		if (world.getTime() % 20 == 0) {
+			updateColumns();
 			double cyclesLimit = getSpeedMultiplier() * 4 + 1;
 			while (cyclesLimit-- > 0) {
 				workCycle();
@@ -249,6 +356,56 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 	}
 
 	// MachineBaseBlockEntity
+	@Override
+	public void registerListeners(World world) {
+		// Listen to the whole crop area on top of the shape, every crop column is updated from the notifications
+		multiblockCenter = pos.offset(getFacing().getOpposite(), range + 1);
+		List<BlockPos> positions = new ArrayList<>(getShape());
+		int size = range * 2 + 1;
+		BlockPos corner = getCropCorner();
+		for (int x = 0; x < size; x++) {
+			for (int z = 0; z < size; z++) {
+				for (int y = 0; y <= COLUMN_HEIGHT; y++) {
+					positions.add(corner.add(x, y, z));
+				}
+			}
+		}
+		ChunkEventListeners.register(world, this, positions);
+
+		readyColumns.clear();
+		plantColumns.clear();
+		dirtyColumns.clear();
+		markAllColumnsDirty();
+	}
+
+	@Override
+	public void onBlockUpdate(BlockPos pos) {
+		// The base class only expects positions of the shape, crop growth is tracked here without waking the machine
+		if (getShape().contains(pos)) {
+			super.onBlockUpdate(pos);
+		}
+		if (multiblockCenter == null) {
+			return;
+		}
+
+		BlockPos corner = getCropCorner();
+		int size = range * 2 + 1;
+		int x = pos.getX() - corner.getX();
+		int y = pos.getY() - corner.getY();
+		int z = pos.getZ() - corner.getZ();
+		if (x >= 0 && x < size && z >= 0 && z < size && y >= 0 && y <= COLUMN_HEIGHT) {
+			dirtyColumns.add(BlockPos.asLong(pos.getX(), corner.getY(), pos.getZ()));
+		}
+	}
+
+	@Override
+	public void onLoadChunk() {
+		super.onLoadChunk();
+		if (multiblockCenter != null) {
+			markAllColumnsDirty();
+		}
+	}
+
 	@Override
 	public void writeMultiblock(MultiblockWriter writer) {
 		BlockState lamp = TRContent.Machine.LAMP_INCANDESCENT.block.getDefaultState().with(Properties.FACING, Direction.DOWN);
@@ -24,6 +24,9 @@
 
 package techreborn.blockentity.machine.tier2;
 
+import it.unimi.dsi.fastutil.longs.Long2ByteMap;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -43,7 +46,10 @@ import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.ItemScatterer;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
@@ -75,7 +81,23 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 	public static final int MIN_DEPTH = 1;
 	public static final int MAX_RANGE = 50;
 	public static final int MAX_DEPTH = 50;
+	/**
+	 * Number of block states the finder may read each tick, positions in sections without fluid are not counted
+	 */
+	private static final int SCAN_BUDGET = 4096;
+	/**
+	 * Number of positions the finder may visit each tick, including the ones skipped in sections without fluid
+	 */
+	private static final int MAX_SCAN_VISITS = 65536;
+	/**
+	 * The finder pauses once this many source blocks are waiting to be pumped
+	 */
+	private static final int MAX_QUEUED_SOURCES = 64;
 	private Iterator<BlockPos> finder;
+	// Source blocks found by the finder, in finder order
+	private final LongArrayFIFOQueue foundSources = new LongArrayFIFOQueue();
+	// Whether a chunk section contains any fluid, only valid during a single scan step
+	private final Long2ByteMap sectionHasFluid = new Long2ByteOpenHashMap();
 	@Nullable
 	private Tank tank;
 	private boolean exhausted;
@@ -90,6 +112,7 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		this.exhausted = false;
 		this.range = DEFAULT_RANGE;
 		this.depth = DEFAULT_DEPTH;
+		this.sectionHasFluid.defaultReturnValue((byte) -1);
 	}
 
 	public boolean getExhausted() {
@@ -128,6 +151,7 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 
 	private void reset() {
 		finder = null;
+		foundSources.clear();
 		exhausted = false;
 		pumpedTargetBlockPos = null;
 		world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, false));
@@ -163,6 +187,7 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		this.range = tagCompound.getInt("range");
 		this.depth = tagCompound.getInt("depth");
 		finder = null;
+		foundSources.clear();
 	}
 
 	@Override
@@ -257,7 +282,7 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 			findNextToPump(world);
 			if (pumpedTargetBlockPos != null) {
 				timeToPump = world.getTime() + (long) (TechRebornConfig.pumpTicksToComplete * (1 - getSpeedMultiplier()));
-			} else {
+			} else if (!finder.hasNext()) {
 				//else - consider exhausted
 				world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, false));
 				this.exhausted = true;
@@ -270,11 +295,14 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		if (finder == null) {
 			setupFinder();
 		}
-		while (finder.hasNext()) {
-			BlockPos blockPos = finder.next();
+		if (foundSources.isEmpty()) {
+			scan(world);
+		}
+		while (!foundSources.isEmpty()) {
+			BlockPos blockPos = BlockPos.fromLong(foundSources.dequeueLong());
 
-			BlockState blockState = world.getBlockState(blockPos);
-			Fluid fluid = getFluid(blockState);
+			//the source may have changed since it was found
+			Fluid fluid = getFluid(world.getBlockState(blockPos));
 			if (fluid != Fluids.EMPTY && (fluid == getTank().getFluid() || getTank().getFluid() == Fluids.EMPTY)) {
 				//if any found - start pumping
 				world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, true));
@@ -284,6 +312,47 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		}
 	}
 
+	/**
+	 * Advances the finder until it has read {@link #SCAN_BUDGET} block states, queueing every source block it finds.
+	 * Chunk sections without any fluid in their palette are skipped without reading their blocks, and without using the budget,
+	 * but every position still counts against {@link #MAX_SCAN_VISITS} so a large dry area is spread over several ticks.
+	 */
+	private void scan(World world) {
+		int budget = SCAN_BUDGET;
+		int visits = MAX_SCAN_VISITS;
+		while (budget > 0 && visits-- > 0 && finder.hasNext() && foundSources.size() < MAX_QUEUED_SOURCES) {
+			BlockPos blockPos = finder.next();
+			if (!mayContainFluid(world, blockPos)) {
+				continue;
+			}
+
+			budget--;
+			if (getFluid(world.getBlockState(blockPos)) != Fluids.EMPTY) {
+				foundSources.enqueue(blockPos.asLong());
+			}
+		}
+		sectionHasFluid.clear();
+	}
+
+	private boolean mayContainFluid(World world, BlockPos blockPos) {
+		long sectionPos = ChunkSectionPos.toLong(blockPos);
+		byte cached = sectionHasFluid.get(sectionPos);
+		if (cached != -1) {
+			return cached == 1;
+		}
+
+		boolean hasFluid = false;
+		Chunk chunk = world.getChunk(blockPos);
+		int sectionIndex = chunk.getSectionIndex(blockPos.getY());
+		if (sectionIndex >= 0 && sectionIndex < chunk.getSectionArray().length) {
+			ChunkSection section = chunk.getSection(sectionIndex);
+			hasFluid = !section.isEmpty() && section.hasAny(state -> !state.getFluidState().isEmpty());
+		}
+
+		sectionHasFluid.put(sectionPos, (byte) (hasFluid ? 1 : 0));
+		return hasFluid;
+	}
+
 	@NotNull
 	private Fluid getFluid(BlockState blockState) {
 		FluidState fluidState = blockState.getFluidState();
@@ -41,6 +41,7 @@ import reborncore.api.IToolDrop;
 import reborncore.api.blockentity.InventoryProvider;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.chunkloading.ChunkLoaderManager;
+import reborncore.common.network.clientbound.ChunkSyncPayload;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
@@ -49,6 +50,9 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ChunkLoaderBlockEntity extends MachineBaseBlockEntity implements IToolDrop, InventoryProvider, BuiltScreenHandlerProvider {
 
 	public final RebornInventory<ChunkLoaderBlockEntity> inventory = new RebornInventory<>(0, "ChunkLoaderBlockEntity", 64, this);
@@ -70,32 +74,30 @@ public class ChunkLoaderBlockEntity extends MachineBaseBlockEntity implements IT
 			radius = 1;
 		}
 
-		reload();
+		ChunkSyncPayload changes = reload();
 
 		if (playerEntity != null) {
 			ChunkLoaderManager manager = ChunkLoaderManager.get(getWorld());
-			manager.syncChunkLoaderToClient((ServerPlayerEntity) playerEntity, getPos());
+			manager.syncToClient((ServerPlayerEntity) playerEntity, changes);
 		}
 	}
 
-	private void reload() {
-		unloadAll();
-		load();
-	}
-
-	private void load() {
+	/**
+	 * Loads the chunks in the current radius, only the chunks that were not loaded yet or are no longer in range change.
+	 *
+	 * @return {@link ChunkSyncPayload} The changes
+	 */
+	private ChunkSyncPayload reload() {
 		ChunkLoaderManager manager = ChunkLoaderManager.get(getWorld());
 		ChunkPos rootPos = getChunkPos();
 		int loadRadius = radius - 1;
+		List<ChunkPos> chunks = new ArrayList<>();
 		for (int i = -loadRadius; i <= loadRadius; i++) {
 			for (int j = -loadRadius; j <= loadRadius; j++) {
-				ChunkPos loadPos = new ChunkPos(rootPos.x + i, rootPos.z + j);
-
-				if (!manager.isChunkLoaded(getWorld(), loadPos, getPos())) {
-					manager.loadChunk(getWorld(), loadPos, getPos(), ownerUdid);
-				}
+				chunks.add(new ChunkPos(rootPos.x + i, rootPos.z + j));
 			}
 		}
+		return manager.updateChunkLoader(getWorld(), getPos(), chunks, ownerUdid);
 	}
 
 	private void unloadAll() {
@@ -25,12 +25,12 @@
 package techreborn.blockentity.storage.energy.lesu;
 
 import net.minecraft.block.BlockState;
-import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 import reborncore.api.IToolDrop;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import techreborn.init.TRBlockEntities;
@@ -39,51 +39,57 @@ import techreborn.init.TRContent;
 public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 		implements IToolDrop {
 
-	public LesuNetwork network;
+	LesuNetwork network;
 
 	public LSUStorageBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.LSU_STORAGE, pos, state);
 	}
 
+	/**
+	 * @return {@link LesuNetwork} The root of the network of this storage, or {@code null} if it has not joined one yet
+	 */
+	@Nullable
+	public final LesuNetwork getNetwork() {
+		if (network == null) {
+			return null;
+		}
+		if (network.isInvalid()) {
+			network = null;
+			return null;
+		}
+		network = network.getRoot();
+		return network;
+	}
+
 	public final void findAndJoinNetwork(World world, BlockPos pos) {
 		network = new LesuNetwork();
-		network.addElement(this);
+		network.addElement(pos);
 		for (Direction direction : Direction.values()) {
-			BlockEntity be = world.getBlockEntity(pos.offset(direction));
-			if (!(be instanceof LSUStorageBlockEntity lesuStorage)) {
+			if (!(world.getBlockEntity(pos.offset(direction)) instanceof LSUStorageBlockEntity lesuStorage)) {
 				continue;
 			}
-			if (lesuStorage.network != null) {
-				lesuStorage.network.merge(network);
-			}
-			else {
-				lesuStorage.setNetwork(network);
+			LesuNetwork adjacentNetwork = lesuStorage.getNetwork();
+			if (adjacentNetwork != null) {
+				network = LesuNetwork.union(network, adjacentNetwork);
 			}
 		}
 	}
 
-	public final void setNetwork(LesuNetwork n) {
-		if (n == null) {
-			return;
-		}
-		network = n;
-		network.addElement(this);
-	}
-
 	public final void resetNetwork() {
 		network = null;
 	}
 
 	public final void removeFromNetwork() {
-		if (network == null) {
+		LesuNetwork oldNetwork = getNetwork();
+		if (oldNetwork == null) {
 			return;
 		}
-		network.removeElement(this);
+		resetNetwork();
+		oldNetwork.removeElement(world, pos);
 	}
 
 	public final void rebuildNetwork() {
 		removeFromNetwork();
-		resetNetwork();
 		findAndJoinNetwork(world, pos);
 	}
 
@@ -95,13 +101,8 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 			return;
 		}
 
-		if (network == null) {
+		if (getNetwork() == null) {
 			findAndJoinNetwork(world, pos);
-		} else {
-			if (network.master != null
-					&& network.master.getWorld().getBlockEntity(network.master.getPos()) != network.master) {
-				network.master = null;
-			}
 		}
 	}
 
@@ -25,12 +25,12 @@
 package techreborn.blockentity.storage.energy.lesu;
 
 import net.minecraft.block.BlockState;
-import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.powerSystem.RcEnergyTier;
 import reborncore.common.screen.BuiltScreenHandler;
@@ -41,13 +41,14 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
-import java.util.ArrayList;
 import java.util.Objects;
 
 public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements BuiltScreenHandlerProvider {
 
 	private int connectedBlocks = 0;
-	private final ArrayList<LesuNetwork> countedNetworks = new ArrayList<>();
+	// The network this LESU is the master of
+	@Nullable
+	private LesuNetwork network = null;
 
 	public LapotronicSUBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.LAPOTRONIC_SU, pos, state, "LESU", 2, TRContent.Machine.LAPOTRONIC_SU.block, RcEnergyTier.LOW, TechRebornConfig.lesuStoragePerBlock);
@@ -76,27 +77,31 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 	private void checkNetwork() {
 		Objects.requireNonNull(world, "World may not be null.");
 
-		countedNetworks.clear();
-		connectedBlocks = 0;
+		network = null;
 		for (Direction dir : Direction.values()) {
-			BlockEntity adjacent = world.getBlockEntity(pos.offset(dir));
-			if (!(adjacent instanceof LSUStorageBlockEntity)) {
+			if (!(world.getBlockEntity(pos.offset(dir)) instanceof LSUStorageBlockEntity lesuStorage)) {
 				continue;
 			}
-			LesuNetwork network = ((LSUStorageBlockEntity) adjacent).network;
-			if (network == null) {
+			LesuNetwork adjacentNetwork = lesuStorage.getNetwork();
+			if (adjacentNetwork == null) {
 				continue;
 			}
-			if (countedNetworks.contains(network)) {
-				continue;
-			}
-			if (network.master == null || network.master == this) {
-				connectedBlocks += network.storages.size();
-				countedNetworks.add(network);
-				network.master = this;
+			if (adjacentNetwork.getMaster() == null || adjacentNetwork.getMaster() == this) {
+				adjacentNetwork.setMaster(this);
+				network = adjacentNetwork;
 				break;
 			}
 		}
+		updateConnectedBlocks();
+	}
+
+	private void updateConnectedBlocks() {
+		int count = network == null ? 0 : network.getStorageCount();
+		if (count != connectedBlocks) {
+			connectedBlocks = count;
+			setMaxStorage();
+			setIORate();
+		}
 	}
 
 	// EnergyStorageBlockEntity
@@ -107,13 +112,17 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 			return;
 		}
 
-		if (world.getTime() % 20 == 0) {
+		if (network == null) {
+			// Look for a network to join now and then, storages might not have joined their own network on placement yet
+			if (world.getTime() % 20 == 0) {
+				checkNetwork();
+			}
+		} else if (network.isInvalid() || network.getMaster() != this) {
 			checkNetwork();
+		} else {
+			updateConnectedBlocks();
 		}
 
-		setMaxStorage();
-		setIORate();
-
 		if (getEnergy() > getMaxStoredPower()) {
 			setEnergy(getMaxStoredPower());
 		}
@@ -123,9 +132,19 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 	@Override
 	public void onLoad() {
 		super.onLoad();
+		setMaxStorage();
+		setIORate();
 		checkNetwork();
 	}
 
+	@Override
+	public void onNeighborUpdate(BlockPos neighborPos) {
+		super.onNeighborUpdate(neighborPos);
+		if (world != null && !world.isClient) {
+			checkNetwork();
+		}
+	}
+
 	// IContainerProvider
 	@Override
 	public BuiltScreenHandler createScreenHandler(int syncID, final PlayerEntity player) {
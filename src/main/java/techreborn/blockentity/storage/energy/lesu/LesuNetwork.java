@@ -24,52 +24,150 @@
 
 package techreborn.blockentity.storage.energy.lesu;
 
-import java.util.ArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A connected group of LESU storage blocks, kept as a disjoint-set forest.
+ * <p>
+ * Joining two networks links the smaller root below the larger one, storages find their root lazily.
+ * Removing a storage floods only the network it was part of, to find the pieces it splits into.
+ */
 public class LesuNetwork {
+	public static final int MAX_STORAGES = 5000;
 
-	public final ArrayList<LSUStorageBlockEntity> storages = new ArrayList<>();
+	@Nullable
+	private LesuNetwork parent = null;
+	// Packed positions of all storages, only used on the root
+	private final LongSet members = new LongOpenHashSet();
+	@Nullable
+	private LapotronicSUBlockEntity master = null;
+	// Set when the network was split up, its storages have moved to new networks
+	private boolean invalid = false;
 
-	public LapotronicSUBlockEntity master;
+	public LesuNetwork getRoot() {
+		LesuNetwork root = this;
+		while (root.parent != null) {
+			root = root.parent;
+		}
 
-	public void addElement(LSUStorageBlockEntity lesuStorage) {
-		if (!storages.contains(lesuStorage) && storages.size() < 5000) {
-			storages.add(lesuStorage);
+		// Path compression
+		LesuNetwork node = this;
+		while (node.parent != null && node.parent != root) {
+			LesuNetwork next = node.parent;
+			node.parent = root;
+			node = next;
 		}
+		return root;
 	}
 
-	public void removeElement(LSUStorageBlockEntity lesuStorage) {
-		storages.remove(lesuStorage);
-		rebuild();
+	public boolean isInvalid() {
+		return getRoot().invalid;
 	}
 
-	private void rebuild() {
-		master = null;
-		for (LSUStorageBlockEntity lesuStorage : storages) {
-			lesuStorage.findAndJoinNetwork(lesuStorage.getWorld(), lesuStorage.getPos());
+	public int getStorageCount() {
+		return Math.min(getRoot().members.size(), MAX_STORAGES);
+	}
+
+	@Nullable
+	public LapotronicSUBlockEntity getMaster() {
+		LesuNetwork root = getRoot();
+		if (root.master != null && root.master.isRemoved()) {
+			root.master = null;
 		}
+		return root.master;
 	}
 
-	public void merge(LesuNetwork network) {
-		if (network != this) {
-			ArrayList<LSUStorageBlockEntity> blockEntityLesuStorages = new ArrayList<>(network.storages);
-			network.clear(false);
-			for (LSUStorageBlockEntity lesuStorage : blockEntityLesuStorages) {
-				lesuStorage.setNetwork(this);
-			}
-			if (network.master != null && this.master == null) {
-				this.master = network.master;
-			}
+	public void setMaster(@Nullable LapotronicSUBlockEntity master) {
+		getRoot().master = master;
+	}
+
+	public void addElement(BlockPos pos) {
+		getRoot().members.add(pos.asLong());
+	}
+
+	/**
+	 * Joins two networks
+	 *
+	 * @return {@link LesuNetwork} The root of the joined network
+	 */
+	public static LesuNetwork union(LesuNetwork a, LesuNetwork b) {
+		a = a.getRoot();
+		b = b.getRoot();
+		if (a == b) {
+			return a;
 		}
+
+		if (a.members.size() < b.members.size()) {
+			LesuNetwork swap = a;
+			a = b;
+			b = swap;
+		}
+
+		b.parent = a;
+		a.members.addAll(b.members);
+		b.members.clear();
+		if (a.master == null) {
+			a.master = b.master;
+		}
+		b.master = null;
+		return a;
 	}
 
-	private void clear(boolean clearBlockEntities) {
-		if (clearBlockEntities) {
-			for (LSUStorageBlockEntity blockEntityLesuStorage : storages) {
-				blockEntityLesuStorage.resetNetwork();
+	/**
+	 * Removes a storage, re-flooding the rest of its network from each of its neighbours.
+	 * Every storage that is reached moves to a new network, so the old network becomes invalid.
+	 */
+	public void removeElement(World world, BlockPos pos) {
+		LesuNetwork root = getRoot();
+		if (root.invalid) {
+			return;
+		}
+		root.invalid = true;
+		root.members.clear();
+		root.master = null;
+
+		Deque<LSUStorageBlockEntity> queue = new ArrayDeque<>();
+		for (Direction direction : Direction.values()) {
+			LSUStorageBlockEntity start = getMember(world, pos.offset(direction), root);
+			if (start == null) {
+				continue;
+			}
+
+			LesuNetwork component = new LesuNetwork();
+			start.network = component;
+			component.members.add(start.getPos().asLong());
+			queue.add(start);
+
+			while (!queue.isEmpty()) {
+				LSUStorageBlockEntity current = queue.removeFirst();
+				for (Direction side : Direction.values()) {
+					LSUStorageBlockEntity next = getMember(world, current.getPos().offset(side), root);
+					if (next != null) {
+						next.network = component;
+						component.members.add(next.getPos().asLong());
+						queue.add(next);
+					}
+				}
 			}
 		}
-		storages.clear();
 	}
 
+	@Nullable
+	private static LSUStorageBlockEntity getMember(World world, BlockPos pos, LesuNetwork root) {
+		if (!world.isChunkLoaded(pos)) {
+			return null;
+		}
+		if (world.getBlockEntity(pos) instanceof LSUStorageBlockEntity storage && storage.network != null && storage.network.getRoot() == root) {
+			return storage;
+		}
+		return null;
+	}
 }
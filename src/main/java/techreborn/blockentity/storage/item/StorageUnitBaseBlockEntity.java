@@ -26,10 +26,14 @@ package techreborn.blockentity.storage.item;
 
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
-import net.fabricmc.fabric.api.transfer.v1.item.base.SingleStackStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.SlottedStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
+import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedSlottedStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.ResourceAmount;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.minecraft.block.BlockState;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.NbtComponent;
@@ -75,9 +79,12 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	private int maxCapacity;
 	private int serverCapacity = -1;
 
-	private ItemStack storeItemStack;
-	// Fabric transfer API support for the internal stack (one per direction);
-	private final SingleStackStorage[] internalStoreStorage = new SingleStackStorage[6];
+	// The stored items, not counting the output slot
+	private ItemVariant storedVariant = ItemVariant.blank();
+	private long storedCount = 0;
+	private final StoreSnapshots storeSnapshots = new StoreSnapshots();
+	// Fabric transfer API support for the internal store (one per direction);
+	private final StoreStorage[] internalStoreStorage = new StoreStorage[6];
 
 	private TRContent.StorageUnit type;
 
@@ -100,7 +107,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		if(serverCapacity == -1){
 			this.maxCapacity = type.capacity;
 		}
-		storeItemStack = ItemStack.EMPTY;
+		clearStored();
 		this.type = type;
 	}
 
@@ -131,39 +138,35 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	private void populateOutput() {
-		// Set to storeItemStack to get the stack type
-		ItemStack output = storeItemStack.copy();
-
 		int outputSlotCount = inventory.getStack(OUTPUT_SLOT).getCount();
 
-		// Set to current outputSlot count
-		output.setCount(outputSlotCount);
-
 		// Calculate amount needed to fill stack in output slot
-		int amountToFill = getStoredStack().getMaxCount() - outputSlotCount;
-
-		if (storeItemStack.getCount() >= amountToFill) {
-			storeItemStack.decrement(amountToFill);
-
-			if (storeItemStack.isEmpty()) {
-				storeItemStack = ItemStack.EMPTY;
-			}
+		int amountToFill = (int) Math.min(storedVariant.toStack().getMaxCount() - outputSlotCount, storedCount);
+		if (amountToFill <= 0) {
+			return;
+		}
 
-			output.increment(amountToFill);
-		} else {
-			output.increment(storeItemStack.getCount());
-			storeItemStack = ItemStack.EMPTY;
+		inventory.setStack(OUTPUT_SLOT, storedVariant.toStack(outputSlotCount + amountToFill));
+		storedCount -= amountToFill;
+		if (storedCount == 0) {
+			clearStored();
 		}
+	}
 
-		inventory.setStack(OUTPUT_SLOT, output);
+	private void addStored(ItemVariant variant, long amount) {
+		if (storedCount == 0) {
+			storedVariant = variant;
+		}
+		storedCount += amount;
 	}
 
-	private void addStoredItemCount(int amount) {
-		storeItemStack.increment(amount);
+	private void clearStored() {
+		storedVariant = ItemVariant.blank();
+		storedCount = 0;
 	}
 
 	public ItemStack getStoredStack() {
-		return storeItemStack.isEmpty() ? inventory.getStack(OUTPUT_SLOT) : storeItemStack;
+		return storedCount == 0 ? inventory.getStack(OUTPUT_SLOT) : storedVariant.toStack((int) Math.min(storedCount, Integer.MAX_VALUE));
 	}
 
 	// Returns the ItemStack to be displayed to the player via UI / model
@@ -198,12 +201,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		if (isLocked() && ItemUtils.canExtractFromCachedShulker(optionalShulkerStack, lockedItemStack) > 0 ) {
 			Pair<Integer, ItemStack> pair = ItemUtils.extractFromShulker(inputStack, optionalShulkerStack, lockedItemStack, reminder);
 			if (pair.getLeft() != 0) {
-				int amount = pair.getLeft();
-				if (storeItemStack.isEmpty()) {
-					storeItemStack = lockedItemStack.copy();
-					amount = amount -1;
-				}
-				addStoredItemCount(amount);
+				addStored(ItemVariant.of(lockedItemStack), pair.getLeft());
 				inputStack = pair.getRight().copy();
 				inventory.setHashChanged();
 			}
@@ -211,23 +209,11 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		}
 		if (inputStack.getCount() <= reminder) {
 			// Add full stack
-			if (storeItemStack == ItemStack.EMPTY){
-				// copy input stack into stored if everything is in OUTPUT_SLOT
-				storeItemStack = inputStack.copy();
-			}
-			else {
-				addStoredItemCount(inputStack.getCount());
-			}
-
+			addStored(ItemVariant.of(inputStack), inputStack.getCount());
 			inputStack = ItemStack.EMPTY;
 		} else {
 			// Add only what is needed to reach max capacity
-			if (storeItemStack == ItemStack.EMPTY) {
-				storeItemStack = inputStack.copy();
-				storeItemStack.setCount(reminder);
-			} else {
-				addStoredItemCount(reminder);
-			}
+			addStored(ItemVariant.of(inputStack), reminder);
 			inputStack.decrement(reminder);
 		}
 
@@ -237,8 +223,8 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 	// Creative function
 	private void fillToCapacity() {
-		storeItemStack = getStoredStack();
-		storeItemStack.setCount(maxCapacity);
+		storedVariant = ItemVariant.of(getStoredStack());
+		storedCount = maxCapacity;
 
 		inventory.setStack(OUTPUT_SLOT, ItemStack.EMPTY);
 	}
@@ -248,7 +234,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	public int getCurrentCapacity() {
-		return storeItemStack.getCount() + inventory.getStack(OUTPUT_SLOT).getCount();
+		return (int) (storedCount + inventory.getStack(OUTPUT_SLOT).getCount());
 	}
 
 	// MachineBaseBlockEntity
@@ -264,7 +250,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		}
 
 		// Fill output slot with goodies when stored has items and output count is less than max stack size
-		if (storeItemStack.getCount() > 0 && inventory.getStack(OUTPUT_SLOT).getCount() < getStoredStack().getMaxCount()) {
+		if (storedCount > 0) {
 			populateOutput();
 		}
 
@@ -305,14 +291,15 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			this.type = TRContent.StorageUnit.QUANTUM;
 		}
 
-		storeItemStack = ItemStack.EMPTY;
+		clearStored();
 
 		if (tagCompound.contains("storedStack")) {
-			storeItemStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("storedStack")).orElseThrow();
-		}
-
-		if (!storeItemStack.isEmpty()) {
-			storeItemStack.setCount(Math.min(tagCompound.getInt("storedQuantity"), this.maxCapacity));
+			ItemStack storedStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("storedStack")).orElseThrow();
+			long storedQuantity = Math.min(tagCompound.getLong("storedQuantity"), this.maxCapacity);
+			if (!storedStack.isEmpty() && storedQuantity > 0) {
+				storedVariant = ItemVariant.of(storedStack);
+				storedCount = storedQuantity;
+			}
 		}
 
 		// Renderer only
@@ -331,15 +318,11 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 		tagCompound.putString("unitType", this.type.name());
 
-		if (!storeItemStack.isEmpty()) {
-			ItemStack temp = storeItemStack.copy();
-			if (storeItemStack.getCount() > storeItemStack.getMaxCount()) {
-				temp.setCount(storeItemStack.getMaxCount());
-			}
-			tagCompound.put("storedStack", temp.encode(registryLookup, new NbtCompound()));
-			tagCompound.putInt("storedQuantity", Math.min(storeItemStack.getCount(), maxCapacity));
+		if (storedCount > 0) {
+			tagCompound.put("storedStack", storedVariant.toStack().encode(registryLookup, new NbtCompound()));
+			tagCompound.putLong("storedQuantity", Math.min(storedCount, maxCapacity));
 		} else {
-			tagCompound.putInt("storedQuantity", 0);
+			tagCompound.putLong("storedQuantity", 0);
 		}
 
 		// Renderer only
@@ -360,23 +343,20 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			return;
 		}
 
-		if (storeItemStack != ItemStack.EMPTY) {
-			if (storeItemStack.getMaxCount() == 64) {
+		if (storedCount > 0) {
+			ItemStack storedStack = getStoredStack();
+			if (storedStack.getMaxCount() == 64) {
 				// Drop stacks (In one clump, reduce lag)
-				WorldUtils.dropItem(storeItemStack, world, pos);
+				WorldUtils.dropItem(storedStack, world, pos);
 			} else {
-				int size = storeItemStack.getMaxCount();
+				int size = storedStack.getMaxCount();
 
-				for (int i = 0; i < storeItemStack.getCount() / size; i++) {
-					ItemStack toDrop = storeItemStack.copy();
-					toDrop.setCount(size);
-					WorldUtils.dropItem(toDrop, world, pos);
+				for (int i = 0; i < storedStack.getCount() / size; i++) {
+					WorldUtils.dropItem(storedVariant.toStack(size), world, pos);
 				}
 
-				if (storeItemStack.getCount() % size != 0) {
-					ItemStack toDrop = storeItemStack.copy();
-					toDrop.setCount(storeItemStack.getCount() % size);
-					WorldUtils.dropItem(toDrop, world, pos);
+				if (storedStack.getCount() % size != 0) {
+					WorldUtils.dropItem(storedVariant.toStack(storedStack.getCount() % size), world, pos);
 				}
 
 			}
@@ -533,13 +513,11 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	public void setStoredStackFromNBT(NbtCompound tag) {
-		if (!tag.contains("item")) {
-			storeItemStack = ItemStack.EMPTY;
-		} else {
-			storeItemStack = ItemStack.fromNbt(world.getRegistryManager(), tag.getCompound("item")).orElseThrow();
+		clearStored();
+		if (tag.contains("item") && tag.getInt("count") > 0) {
+			storedVariant = ItemVariant.of(ItemStack.fromNbt(world.getRegistryManager(), tag.getCompound("item")).orElseThrow());
+			storedCount = tag.getInt("count");
 		}
-
-		storeItemStack.setCount(tag.getInt("count"));
 	}
 
 	private SlottedStorage<ItemVariant> getInternalStoreStorage(@Nullable Direction direction) {
@@ -547,47 +525,113 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		final Direction side = direction != null ? direction : Direction.DOWN;
 
 		if (internalStoreStorage[side.getId()] == null) {
-			internalStoreStorage[side.getId()] = new SingleStackStorage() {
-				@Override
-				protected ItemStack getStack() {
-					return storeItemStack;
-				}
+			internalStoreStorage[side.getId()] = new StoreStorage(side);
+		}
+		return internalStoreStorage[side.getId()];
+	}
 
-				@Override
-				protected void setStack(ItemStack stack) {
-					if (stack.isEmpty()) {
-						// Ensure we maintain reference equality to EMPTY
-						storeItemStack = ItemStack.EMPTY;
-					} else {
-						storeItemStack = stack;
-					}
-				}
+	private long getStoreCapacity() {
+		// subtract the items in the output slot
+		return maxCapacity - inventory.getStack(OUTPUT_SLOT).getCount();
+	}
 
-				@Override
-				protected int getCapacity(ItemVariant itemVariant) {
-					// subtract capacity of output slot (super capacity is the default capacity)
-					return maxCapacity - super.getCapacity(itemVariant);
-				}
+	/**
+	 * Snapshots of the internal store, shared by the storages of all sides.
+	 */
+	private class StoreSnapshots extends SnapshotParticipant<ResourceAmount<ItemVariant>> {
+		private void beginChange(TransactionContext transaction) {
+			updateSnapshots(transaction);
+		}
 
-				@Override
-				protected boolean canInsert(ItemVariant itemVariant) {
-					// Check insertion with the same rules as the input slot
-					return StorageUnitBaseBlockEntity.this.canInsert(INPUT_SLOT, itemVariant.toStack(), side);
-				}
+		@Override
+		protected ResourceAmount<ItemVariant> createSnapshot() {
+			return new ResourceAmount<>(storedVariant, storedCount);
+		}
 
-				@Override
-				protected boolean canExtract(ItemVariant itemVariant) {
-					// Check extraction with the same rules as the output slot
-					return StorageUnitBaseBlockEntity.this.canExtract(OUTPUT_SLOT, itemVariant.toStack(), side);
-				}
+		@Override
+		protected void readSnapshot(ResourceAmount<ItemVariant> snapshot) {
+			storedVariant = snapshot.resource();
+			storedCount = snapshot.amount();
+		}
 
-				@Override
-				protected void onFinalCommit() {
-					inventory.setHashChanged();
-				}
-			};
+		@Override
+		protected void onFinalCommit() {
+			inventory.setHashChanged();
+		}
+	}
+
+	/**
+	 * Exposes the full stored amount of the internal store, so that thousands of items can move in one transaction.
+	 */
+	private class StoreStorage implements SingleSlotStorage<ItemVariant> {
+		private final Direction side;
+
+		private StoreStorage(Direction side) {
+			this.side = side;
+		}
+
+		@Override
+		public long insert(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+			StoragePreconditions.notBlankNotNegative(resource, maxAmount);
+
+			if (storedCount > 0 && !resource.equals(storedVariant)) {
+				return 0;
+			}
+			// Check insertion with the same rules as the input slot
+			if (!StorageUnitBaseBlockEntity.this.canInsert(INPUT_SLOT, resource.toStack(), side)) {
+				return 0;
+			}
+
+			long inserted = Math.min(maxAmount, getStoreCapacity() - storedCount);
+			if (inserted <= 0) {
+				return 0;
+			}
+
+			storeSnapshots.beginChange(transaction);
+			addStored(resource, inserted);
+			return inserted;
+		}
+
+		@Override
+		public long extract(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+			StoragePreconditions.notBlankNotNegative(resource, maxAmount);
+
+			if (storedCount == 0 || !resource.equals(storedVariant)) {
+				return 0;
+			}
+			// Check extraction with the same rules as the output slot
+			if (!StorageUnitBaseBlockEntity.this.canExtract(OUTPUT_SLOT, resource.toStack(), side)) {
+				return 0;
+			}
+
+			long extracted = Math.min(maxAmount, storedCount);
+			storeSnapshots.beginChange(transaction);
+			storedCount -= extracted;
+			if (storedCount == 0) {
+				clearStored();
+			}
+			return extracted;
+		}
+
+		@Override
+		public boolean isResourceBlank() {
+			return storedCount == 0;
+		}
+
+		@Override
+		public ItemVariant getResource() {
+			return storedCount == 0 ? ItemVariant.blank() : storedVariant;
+		}
+
+		@Override
+		public long getAmount() {
+			return storedCount;
+		}
+
+		@Override
+		public long getCapacity() {
+			return getStoreCapacity();
 		}
-		return internalStoreStorage[side.getId()];
 	}
 
 	public Storage<ItemVariant> getExposedStorage(Direction side) {
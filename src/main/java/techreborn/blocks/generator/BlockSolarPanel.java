@@ -61,6 +61,14 @@ public class BlockSolarPanel extends BlockMachineBase {
 		return GuiType.SOLAR_PANEL;
 	}
 
+	@Override
+	public void onStateReplaced(BlockState state, World worldIn, BlockPos pos, BlockState newState, boolean isMoving) {
+		if (state.getBlock() != newState.getBlock() && worldIn.getBlockEntity(pos) instanceof SolarPanelBlockEntity blockEntity) {
+			blockEntity.leaveArray();
+		}
+		super.onStateReplaced(state, worldIn, pos, newState, isMoving);
+	}
+
 	@Override
 	public int getComparatorOutput(BlockState state, World world, BlockPos pos) {
 		return PowerAcceptorBlockEntity.calculateComparatorOutputFromEnergy(world.getBlockEntity(pos));
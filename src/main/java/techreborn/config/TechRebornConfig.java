@@ -36,6 +36,9 @@ public class TechRebornConfig {
 	@Config(config = "generators", category = "solarPanelGeneral", key = "internalCapacity", comment = "Multiplier for internal capacity of solar panels (multiplier * day generation rate)")
 	public static int solarInternalCapacityMultiplier = 2000;
 
+	@Config(config = "generators", category = "solarPanelGeneral", key = "arrays", comment = "Adjacent solar panels of the same type generate as one array, which is cheaper for large fields. The array only outputs through the panels next to an energy consumer, the other panels store what those cannot take and are emptied through them later")
+	public static boolean solarPanelArrays = false;
+
 	@Config(config = "generators", category = "solarPanelBasic", key = "basicDayRate", comment = "Generation rate during day for Basic Solar Panel (Energy per tick)")
 	public static int basicGenerationRateD = 3;
 
@@ -469,6 +472,9 @@ public class TechRebornConfig {
 	@Config(config = "machines", category = "autocrafter", key = "AutoCrafterMaxEnergy", comment = "AutoCrafting Table Max Energy")
 	public static int autoCraftingTableMaxEnergy = 10_000;
 
+	@Config(config = "machines", category = "autocrafter", key = "AutoCrafterBatchSize", comment = "AutoCrafting Table max crafts per operation, limited by the inputs, output space and stored energy. Each craft uses the same energy (1 to craft one at a time)")
+	public static int autoCraftingTableBatchSize = 1;
+
 	@Config(config = "machines", category = "fluidreplicator", key = "FluidReplicatorMaxInput", comment = "Fluid Replicator Max Input (Energy per tick)")
 	public static int fluidReplicatorMaxInput = 256;
 
@@ -520,6 +526,9 @@ public class TechRebornConfig {
 	@Config(config = "machines", category = "fusion_reactor", key = "FusionReactorMaxCoilSize", comment = "Fusion Reactor Max Coil size (Radius)")
 	public static int fusionControlComputerMaxCoilSize = 50;
 
+	@Config(config = "machines", category = "fusion_reactor", key = "FusionReactorCoilDiskCache", comment = "Cache the coil positions of large Fusion Reactors on disk, speeds up loading them with a raised max coil size")
+	public static boolean fusionControlComputerCoilDiskCache = true;
+
 	@Config(config = "machines", category = "recycler", key = "RecyclerInput", comment = "Recycler Max Input (Energy per tick)")
 	public static int recyclerMaxInput = 32;
 